@@ -0,0 +1,65 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel;
+
+import info.magnolia.demo.travel.navigation.CategoryNavigationCache;
+import info.magnolia.demo.travel.navigation.SiteLinkCache;
+import info.magnolia.demo.travel.navigation.SiteLinkResolver;
+import info.magnolia.demo.travel.templating.ImageTemplatingFunctions;
+import info.magnolia.module.ModuleLifecycle;
+import info.magnolia.module.ModuleLifecycleContext;
+import info.magnolia.objectfactory.Components;
+
+/**
+ * Module class of the travel demo; starts and stops the caches of its templating functions and navigation, and
+ * prefetches the navigation area links on startup.
+ */
+public class TravelDemoModule implements ModuleLifecycle {
+
+    @Override
+    public void start(ModuleLifecycleContext moduleLifecycleContext) {
+        Components.getComponent(ImageTemplatingFunctions.class).start();
+        Components.getComponent(CategoryNavigationCache.class).start();
+        Components.getComponent(SiteLinkCache.class).start();
+        Components.getComponent(SiteLinkResolver.class).prefetch();
+    }
+
+    @Override
+    public void stop(ModuleLifecycleContext moduleLifecycleContext) {
+        Components.getComponent(ImageTemplatingFunctions.class).stop();
+        Components.getComponent(CategoryNavigationCache.class).stop();
+        Components.getComponent(SiteLinkCache.class).stop();
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.cache;
+
+import info.magnolia.cms.util.ObservationUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+/**
+ * Base class of in-memory caches kept up to date by observation listeners on whole workspaces.
+ *
+ * <p>Subclasses declare the observed workspaces in their constructor; the listeners are only registered once the cache
+ * is {@link #start() started}. Events are delivered deferred, a second after the last change of a burst but at least
+ * every five seconds.</p>
+ */
+public abstract class ObservedCache {
+
+    private static final long OBSERVATION_DELAY = 1000;
+    private static final long OBSERVATION_MAX_DELAY = 5000;
+
+    private final Map<String, EventListener> observedWorkspaces = new LinkedHashMap<>();
+    private final Map<String, EventListener> listeners = new LinkedHashMap<>();
+
+    private volatile boolean started;
+
+    /**
+     * Observes the given workspace with the given listener once the cache is started.
+     */
+    protected final void observe(String workspace, EventListener listener) {
+        observedWorkspaces.put(workspace, listener);
+    }
+
+    /**
+     * Observes the given workspaces, any change of which drops the whole cache.
+     */
+    protected final void invalidateOnChangesOf(String... workspaces) {
+        for (String workspace : workspaces) {
+            observe(workspace, new InvalidatingEventListener());
+        }
+    }
+
+    /**
+     * Drops all cached entries.
+     */
+    public abstract void invalidate();
+
+    /**
+     * Registers the observation listeners and drops all entries cached so far.
+     */
+    public synchronized void start() {
+        stop();
+        for (Map.Entry<String, EventListener> workspace : observedWorkspaces.entrySet()) {
+            listeners.put(workspace.getKey(), ObservationUtil.registerDeferredChangeListener(workspace.getKey(), "/", workspace.getValue(), OBSERVATION_DELAY, OBSERVATION_MAX_DELAY));
+        }
+        started = true;
+        invalidate();
+    }
+
+    /**
+     * Unregisters the observation listeners and drops all cached entries.
+     */
+    public synchronized void stop() {
+        started = false;
+        for (Map.Entry<String, EventListener> listener : listeners.entrySet()) {
+            ObservationUtil.unregisterChangeListener(listener.getKey(), listener.getValue());
+        }
+        listeners.clear();
+        invalidate();
+    }
+
+    /**
+     * Whether the observation listeners are registered, i.e. whether cached entries are dropped once stale.
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Drops the whole cache on any change.
+     */
+    private class InvalidatingEventListener implements EventListener {
+
+        @Override
+        public void onEvent(EventIterator events) {
+            invalidate();
+        }
+    }
+}
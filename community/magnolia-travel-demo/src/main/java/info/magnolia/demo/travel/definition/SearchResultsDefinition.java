@@ -0,0 +1,70 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.definition;
+
+import info.magnolia.rendering.template.configured.ConfiguredTemplateDefinition;
+
+/**
+ * Template definition for {@link info.magnolia.demo.travel.model.SearchResultsModel}.
+ */
+public class SearchResultsDefinition extends ConfiguredTemplateDefinition {
+
+    /**
+     * Number of results per page; <code>0</code> lists all results on one page.
+     */
+    private int pageSize = 10;
+
+    /**
+     * Time in milliseconds after which a search stops collecting results and returns those found so far;
+     * <code>0</code> waits for all results. Only the collection of hits is timed: the repository executing the
+     * (limited) query isn't interrupted.
+     */
+    private long queryTimeBudget = 500;
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public long getQueryTimeBudget() {
+        return queryTimeBudget;
+    }
+
+    public void setQueryTimeBudget(long queryTimeBudget) {
+        this.queryTimeBudget = queryTimeBudget;
+    }
+}
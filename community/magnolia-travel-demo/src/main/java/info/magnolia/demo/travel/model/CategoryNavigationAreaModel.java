@@ -0,0 +1,147 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.model;
+
+import info.magnolia.cms.core.Path;
+import info.magnolia.cms.i18n.I18nContentSupport;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.navigation.CategoryNavigationCache;
+import info.magnolia.demo.travel.navigation.NavigationLink;
+import info.magnolia.demo.travel.navigation.SiteLinkResolver;
+import info.magnolia.demo.travel.trace.AccessTrace;
+import info.magnolia.jcr.util.ContentMap;
+import info.magnolia.jcr.util.NodeUtil;
+import info.magnolia.jcr.util.PropertyUtil;
+import info.magnolia.module.categorization.CategorizationModule;
+import info.magnolia.rendering.model.RenderingModel;
+import info.magnolia.rendering.template.AreaDefinition;
+import info.magnolia.templating.functions.TemplatingFunctions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.inject.Inject;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link NavigationAreaModel} providing the dropdown menus of the category overview pages (destinations and tour
+ * types).
+ *
+ * <p>Menus are built once per overview page, category folder and locale and kept in the {@link CategoryNavigationCache}
+ * until categories or pages change. As they are shared by all users, categories are read with the system context.</p>
+ */
+public class CategoryNavigationAreaModel extends NavigationAreaModel {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryNavigationAreaModel.class);
+
+    private static final String CATEGORY_NODE_TYPE = "mgnl:category";
+    private static final String CATEGORY_DISPLAY_NAME = "displayName";
+
+    private final TemplatingFunctions templatingFunctions;
+    private final CategoryNavigationCache categoryNavigationCache;
+    private final I18nContentSupport i18nContentSupport;
+
+    @Inject
+    public CategoryNavigationAreaModel(Node content, AreaDefinition definition, RenderingModel<?> parent, TemplatingFunctions templatingFunctions, SiteLinkResolver siteLinkResolver,
+                                       CategoryNavigationCache categoryNavigationCache, I18nContentSupport i18nContentSupport) {
+        super(content, definition, parent, templatingFunctions, siteLinkResolver);
+
+        this.templatingFunctions = templatingFunctions;
+        this.categoryNavigationCache = categoryNavigationCache;
+        this.i18nContentSupport = i18nContentSupport;
+    }
+
+    /**
+     * Returns the menu of the categories directly below <code>categoryPath</code>, each linking to the overview page
+     * with the category name as selector (e.g. <code>/travel/destinations~asia~.html</code>).
+     */
+    public List<NavigationLink> getCategoryNavigation(ContentMap overviewPage, String categoryPath) {
+        final Node overviewNode = overviewPage.getJCRNode();
+        final Locale locale = i18nContentSupport.getLocale();
+
+        try {
+            final String overviewPageIdentifier = overviewNode.getIdentifier();
+            List<NavigationLink> menu = categoryNavigationCache.get(overviewPageIdentifier, categoryPath, locale);
+
+            if (menu == null) {
+                menu = buildCategoryNavigation(overviewNode, categoryPath);
+                if (categoryNavigationCache.isStarted()) {
+                    categoryNavigationCache.put(overviewPageIdentifier, categoryPath, locale, menu);
+                }
+            }
+            return menu;
+        } catch (RepositoryException e) {
+            log.error("Could not build the category navigation for '{}'.", categoryPath, e);
+        }
+        return Collections.emptyList();
+    }
+
+    private List<NavigationLink> buildCategoryNavigation(Node overviewNode, String categoryPath) throws RepositoryException {
+        AccessTrace.record(AccessTrace.Kind.NODE, CategorizationModule.CATEGORIZATION_WORKSPACE, categoryPath);
+
+        final Session session = MgnlContext.getSystemContext().getJCRSession(CategorizationModule.CATEGORIZATION_WORKSPACE);
+        if (!session.nodeExists(categoryPath)) {
+            return Collections.emptyList();
+        }
+
+        final String overviewLink = templatingFunctions.link(overviewNode);
+        final List<NavigationLink> menu = new ArrayList<>();
+
+        for (Node categoryNode : NodeUtil.getNodes(session.getNode(categoryPath), CATEGORY_NODE_TYPE)) {
+            final Node category = templatingFunctions.wrapForI18n(categoryNode);
+            final String label = StringUtils.defaultIfBlank(PropertyUtil.getString(category, CATEGORY_DISPLAY_NAME), categoryNode.getName());
+            menu.add(new NavigationLink(label, getLinkWithSelector(overviewLink, categoryNode.getName())));
+        }
+        return Collections.unmodifiableList(menu);
+    }
+
+    private static String getLinkWithSelector(String link, String selector) {
+        if (link == null) {
+            return null;
+        }
+        final int extensionIndex = link.lastIndexOf('.');
+        if (extensionIndex <= link.lastIndexOf('/')) {
+            return link + Path.SELECTOR_DELIMITER + selector + Path.SELECTOR_DELIMITER;
+        }
+        return link.substring(0, extensionIndex) + Path.SELECTOR_DELIMITER + selector + Path.SELECTOR_DELIMITER + link.substring(extensionIndex);
+    }
+}
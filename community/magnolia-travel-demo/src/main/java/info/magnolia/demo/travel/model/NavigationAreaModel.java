@@ -34,11 +34,15 @@
 package info.magnolia.demo.travel.model;
 
 import info.magnolia.demo.travel.definition.NavigationAreaDefinition;
+import info.magnolia.demo.travel.navigation.SiteLinkResolver;
+import info.magnolia.demo.travel.trace.AccessTrace;
 import info.magnolia.demo.travel.user.UserLinksResolver;
+import info.magnolia.objectfactory.Components;
 import info.magnolia.rendering.model.RenderingModel;
 import info.magnolia.rendering.model.RenderingModelImpl;
 import info.magnolia.rendering.template.AreaDefinition;
 import info.magnolia.rendering.template.type.DefaultTemplateTypes;
+import info.magnolia.repository.RepositoryConstants;
 import info.magnolia.templating.functions.TemplatingFunctions;
 
 import java.util.List;
@@ -62,33 +66,55 @@ public class NavigationAreaModel extends RenderingModelImpl<AreaDefinition> {
 
     private static final Logger log = LoggerFactory.getLogger(NavigationAreaModel.class);
 
-    private static final String DEMO_ABOUT_TEMPLATE_SUBTYPE = "demo-about";
+    public static final String DEMO_ABOUT_TEMPLATE_SUBTYPE = "demo-about";
 
     private UserLinksResolver userLinksResolver;
 
     private final TemplatingFunctions templatingFunctions;
+    private final SiteLinkResolver siteLinkResolver;
 
     @Inject
-    public NavigationAreaModel(Node content, AreaDefinition definition, RenderingModel<?> parent, TemplatingFunctions templatingFunctions) {
+    public NavigationAreaModel(Node content, AreaDefinition definition, RenderingModel<?> parent, TemplatingFunctions templatingFunctions, SiteLinkResolver siteLinkResolver) {
         super(content, definition, parent);
 
         this.templatingFunctions = templatingFunctions;
+        this.siteLinkResolver = siteLinkResolver;
+    }
+
+    /**
+     * @deprecated since 1.1.2, use {@link #NavigationAreaModel(Node, AreaDefinition, RenderingModel, TemplatingFunctions, SiteLinkResolver)} instead.
+     */
+    @Deprecated
+    public NavigationAreaModel(Node content, AreaDefinition definition, RenderingModel<?> parent, TemplatingFunctions templatingFunctions) {
+        this(content, definition, parent, templatingFunctions, null);
     }
 
+    /**
+     * Returns the link of the first <code>demo-about</code> feature page of the site; cached per site root until the
+     * <code>website</code> workspace changes.
+     */
     public String getAboutDemoLink() {
-        Node siteRoot = templatingFunctions.siteRoot(content);
+        final Node siteRoot = templatingFunctions.siteRoot(content);
         String link = null;
         try {
-            List<Node> nodes = templatingFunctions.contentListByTemplateType(siteRoot, DefaultTemplateTypes.FEATURE, DEMO_ABOUT_TEMPLATE_SUBTYPE);
-            if (nodes.size() > 0) {
-                link = templatingFunctions.link(nodes.get(0));
-            }
+            link = getSiteLinkResolver().getLink(siteRoot, DEMO_ABOUT_TEMPLATE_SUBTYPE, new SiteLinkResolver.PageFinder() {
+                @Override
+                public Node findPage(Node siteRoot) throws RepositoryException {
+                    AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, DEMO_ABOUT_TEMPLATE_SUBTYPE);
+                    List<Node> nodes = templatingFunctions.contentListByTemplateType(siteRoot, DefaultTemplateTypes.FEATURE, DEMO_ABOUT_TEMPLATE_SUBTYPE);
+                    return nodes.size() > 0 ? nodes.get(0) : null;
+                }
+            });
         } catch (RepositoryException e) {
             log.error("Could not get the '{}' page.", DEMO_ABOUT_TEMPLATE_SUBTYPE, e);
         }
         return link;
     }
 
+    private SiteLinkResolver getSiteLinkResolver() {
+        return siteLinkResolver != null ? siteLinkResolver : Components.getComponent(SiteLinkResolver.class);
+    }
+
     public String getUsername() throws RepositoryException {
         if (this.getUserLinksResolver() != null) {
             return this.getUserLinksResolver().getUsername();
@@ -0,0 +1,235 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.model;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.definition.SearchResultsDefinition;
+import info.magnolia.demo.travel.search.SearchResult;
+import info.magnolia.demo.travel.search.SearchResultPage;
+import info.magnolia.demo.travel.trace.AccessTrace;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.rendering.model.RenderingModel;
+import info.magnolia.rendering.model.RenderingModelImpl;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.templating.functions.TemplatingFunctions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.query.Query;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Model for the search results component: full-text searches one page of results at a time.
+ *
+ * <p>Hits are read from the repository lazily and mapped to the page (or content item) containing them; reading stops
+ * as soon as the requested page is filled, or when the {@link SearchResultsDefinition#getQueryTimeBudget() time
+ * budget} is exceeded, in which case the results found so far are returned. The total number of results is then
+ * estimated from the number of hits reported by the repository.</p>
+ *
+ * <p>The query is limited to as many hits as it takes to fill the requested page and tell whether there is a next one,
+ * as each result holds at least one hit; should several hits fall on the same result, the next batch of hits is
+ * queried from where the previous one ended. The time budget only covers collecting the hits: executing the query
+ * itself can't be interrupted, which is what limiting it bounds instead.</p>
+ */
+public class SearchResultsModel extends RenderingModelImpl<SearchResultsDefinition> {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchResultsModel.class);
+
+    public static final String QUERY_PARAMETER = "queryStr";
+    public static final String PAGE_QUERY_PARAMETER = "page";
+
+    static final String SELECTOR = "t";
+
+    private final TemplatingFunctions templatingFunctions;
+
+    @Inject
+    public SearchResultsModel(Node content, SearchResultsDefinition definition, RenderingModel<?> parent, TemplatingFunctions templatingFunctions) {
+        super(content, definition, parent);
+        this.templatingFunctions = templatingFunctions;
+    }
+
+    /**
+     * Returns the query as requested by the {@value #QUERY_PARAMETER} parameter.
+     */
+    public String getQueryString() {
+        return MgnlContext.getParameter(QUERY_PARAMETER);
+    }
+
+    /**
+     * Returns the pages of the current site matching the query, on the page requested by the
+     * {@value #PAGE_QUERY_PARAMETER} parameter.
+     */
+    public SearchResultPage getPageResults() {
+        return search(RepositoryConstants.WEBSITE, templatingFunctions.siteRoot(content).getPath(), NodeTypes.Page.NAME, PAGE_QUERY_PARAMETER);
+    }
+
+    /**
+     * Returns the content items of the given type below the given path matching the query, on the page requested by
+     * the given parameter.
+     */
+    public SearchResultPage getContentResults(String workspace, String path, String nodeType, String pageParameter) {
+        return search(workspace, path, nodeType, pageParameter);
+    }
+
+    private SearchResultPage search(String workspace, String path, String nodeType, String pageParameter) {
+        final int limit = Math.max(0, definition.getPageSize());
+        final int pageNumber = Math.max(1, NumberUtils.toInt(MgnlContext.getParameter(pageParameter), 1));
+        final int offset = limit > 0 ? (pageNumber - 1) * limit : 0;
+
+        final String terms = getFullTextTerms(getQueryString());
+        if (terms.isEmpty()) {
+            return new SearchResultPage(Collections.<SearchResult>emptyList(), offset, limit, 0, true, false);
+        }
+
+        final long budget = TimeUnit.MILLISECONDS.toNanos(definition.getQueryTimeBudget());
+        final long deadline = System.nanoTime() + budget;
+        try {
+            AccessTrace.record(AccessTrace.Kind.QUERY, workspace, terms);
+            return collect(workspace, path, terms, nodeType, offset, limit, budget > 0 ? deadline : 0);
+        } catch (RepositoryException e) {
+            log.error("Could not search workspace [{}] for [{}].", workspace, terms, e);
+            return new SearchResultPage(Collections.<SearchResult>emptyList(), offset, limit, 0, true, false);
+        }
+    }
+
+    /**
+     * Executes the full-text query for the given (sanitized) terms below the given path, returning at most
+     * <code>limit</code> hits (all for <code>0</code>) starting at the given offset.
+     */
+    protected RowIterator executeQuery(String workspace, String path, String terms, long offset, long limit) throws RepositoryException {
+        final Session session = MgnlContext.getJCRSession(workspace);
+        final String statement = String.format("SELECT * FROM [nt:base] AS %1$s WHERE ISDESCENDANTNODE(%1$s, [%2$s]) AND CONTAINS(%1$s.*, $terms)", SELECTOR, path);
+        final Query query = session.getWorkspace().getQueryManager().createQuery(statement, Query.JCR_SQL2);
+        query.bindValue("terms", session.getValueFactory().createValue(terms));
+        query.setOffset(offset);
+        if (limit > 0) {
+            query.setLimit(limit);
+        }
+        return query.execute().getRows();
+    }
+
+    /**
+     * Maps hits to their closest node of the given type, skipping the first <code>offset</code> distinct ones, until
+     * <code>limit</code> results are collected and one more is found, the hits run out, or the deadline (a
+     * {@link System#nanoTime()}, <code>0</code> for none) passes. Hits are queried in batches of
+     * <code>offset + limit + 1</code>.
+     */
+    private SearchResultPage collect(String workspace, String path, String terms, String nodeType, int offset, int limit, long deadline) throws RepositoryException {
+        final List<SearchResult> results = new ArrayList<>();
+        final Set<String> matches = new HashSet<>();
+        final int batchSize = limit > 0 ? offset + limit + 1 : 0;
+        RowIterator rows = executeQuery(workspace, path, terms, 0, batchSize);
+        final long hits = rows.getSize();
+        int hitsRead = 0;
+        int batchRead = 0;
+        boolean exhausted = true;
+        boolean partial = false;
+
+        while (true) {
+            if (!rows.hasNext()) {
+                if (batchSize == 0 || batchRead < batchSize) {
+                    break;
+                }
+                rows = executeQuery(workspace, path, terms, hitsRead, batchSize);
+                batchRead = 0;
+                if (!rows.hasNext()) {
+                    break;
+                }
+            }
+            if (deadline != 0 && System.nanoTime() - deadline >= 0) {
+                exhausted = false;
+                partial = true;
+                break;
+            }
+            final Row row = rows.nextRow();
+            hitsRead++;
+            batchRead++;
+            final Node node = getClosestNode(row.getNode(SELECTOR), nodeType);
+            if (node == null || !matches.add(node.getIdentifier()) || matches.size() <= offset) {
+                continue;
+            }
+            if (limit > 0 && results.size() >= limit) {
+                exhausted = false;
+                break;
+            }
+            results.add(new SearchResult(templatingFunctions.asContentMap(templatingFunctions.wrapForI18n(node)), templatingFunctions.link(node), getExcerpt(row)));
+        }
+
+        int total = matches.size();
+        if (!exhausted && hits > hitsRead && hitsRead > 0) {
+            total = (int) Math.max(total, Math.min(Integer.MAX_VALUE, hits * matches.size() / hitsRead));
+        }
+        return new SearchResultPage(results, offset, limit, total, exhausted, partial);
+    }
+
+    private Node getClosestNode(Node node, String nodeType) throws RepositoryException {
+        Node current = node;
+        while (current != null && !current.isNodeType(nodeType)) {
+            current = current.getDepth() > 0 ? current.getParent() : null;
+        }
+        return current;
+    }
+
+    private String getExcerpt(Row row) {
+        try {
+            final Value excerpt = row.getValue("rep:excerpt(" + SELECTOR + ")");
+            return excerpt != null ? excerpt.getString() : null;
+        } catch (RepositoryException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Keeps the words of the query only, so that it can't break the full-text search syntax.
+     */
+    static String getFullTextTerms(String query) {
+        return StringUtils.normalizeSpace(StringUtils.defaultString(query).replaceAll("[^\\p{L}\\p{Nd}]+", " "));
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.navigation;
+
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.module.categorization.CategorizationModule;
+import info.magnolia.repository.RepositoryConstants;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Singleton;
+
+/**
+ * Category navigation menus per overview page, category folder and locale, as used by
+ * {@link info.magnolia.demo.travel.model.CategoryNavigationAreaModel}.
+ *
+ * <p>Menus are kept until the <code>category</code> workspace changes, or the <code>website</code> workspace, as the
+ * menu links point to the overview pages.</p>
+ */
+@Singleton
+public class CategoryNavigationCache extends ObservedCache {
+
+    private final ConcurrentMap<String, List<NavigationLink>> menus = new ConcurrentHashMap<>();
+
+    public CategoryNavigationCache() {
+        invalidateOnChangesOf(CategorizationModule.CATEGORIZATION_WORKSPACE, RepositoryConstants.WEBSITE);
+    }
+
+    /**
+     * Returns the cached menu or <code>null</code> if it has not been built yet.
+     */
+    public List<NavigationLink> get(String overviewPageIdentifier, String categoryPath, Locale locale) {
+        return menus.get(getKey(overviewPageIdentifier, categoryPath, locale));
+    }
+
+    public void put(String overviewPageIdentifier, String categoryPath, Locale locale, List<NavigationLink> menu) {
+        menus.put(getKey(overviewPageIdentifier, categoryPath, locale), menu);
+    }
+
+    @Override
+    public void invalidate() {
+        menus.clear();
+    }
+
+    private static String getKey(String overviewPageIdentifier, String categoryPath, Locale locale) {
+        return overviewPageIdentifier + "|" + categoryPath + "|" + locale;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.navigation;
+
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.repository.RepositoryConstants;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Singleton;
+
+/**
+ * Links to pages found below a site root (e.g. by template id), per site root, lookup key and locale, as used by
+ * {@link SiteLinkResolver}. The paths of the found pages are kept per site root and lookup key, so links in other
+ * locales don't need to search for the page again.
+ *
+ * <p>Entries are kept until a page of the <code>website</code> workspace changes. A site without such page is cached
+ * as empty link and path.</p>
+ */
+@Singleton
+public class SiteLinkCache extends ObservedCache {
+
+    private final ConcurrentMap<String, String> links = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> pagePaths = new ConcurrentHashMap<>();
+
+    public SiteLinkCache() {
+        invalidateOnChangesOf(RepositoryConstants.WEBSITE);
+    }
+
+    /**
+     * Returns the cached link or <code>null</code> if it has not been resolved yet.
+     */
+    public String get(String siteRootIdentifier, String key, Locale locale) {
+        return links.get(getKey(siteRootIdentifier, key, locale));
+    }
+
+    public void put(String siteRootIdentifier, String key, Locale locale, String link) {
+        links.put(getKey(siteRootIdentifier, key, locale), link);
+    }
+
+    /**
+     * Returns the cached path of the page or <code>null</code> if it has not been searched for yet.
+     */
+    public String getPagePath(String siteRootIdentifier, String key) {
+        return pagePaths.get(getKey(siteRootIdentifier, key, null));
+    }
+
+    public void putPagePath(String siteRootIdentifier, String key, String path) {
+        pagePaths.put(getKey(siteRootIdentifier, key, null), path);
+    }
+
+    @Override
+    public void invalidate() {
+        links.clear();
+        pagePaths.clear();
+    }
+
+    private static String getKey(String siteRootIdentifier, String key, Locale locale) {
+        return siteRootIdentifier + "|" + key + "|" + locale;
+    }
+}
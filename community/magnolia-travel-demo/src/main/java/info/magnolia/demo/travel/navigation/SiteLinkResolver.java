@@ -0,0 +1,231 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.navigation;
+
+import info.magnolia.cms.i18n.I18nContentSupport;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.definition.NavigationAreaDefinition;
+import info.magnolia.demo.travel.model.NavigationAreaModel;
+import info.magnolia.demo.travel.user.DefaultUserLinksResolver;
+import info.magnolia.demo.travel.user.UserLinksResolver;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.jcr.util.NodeUtil;
+import info.magnolia.rendering.template.AreaDefinition;
+import info.magnolia.rendering.template.TemplateDefinition;
+import info.magnolia.rendering.template.registry.TemplateDefinitionRegistry;
+import info.magnolia.rendering.template.type.DefaultTemplateTypes;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.templating.functions.TemplatingFunctions;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the links of the pages the navigation area points to (about page, user pages) per site root, through the
+ * {@link SiteLinkCache}.
+ *
+ * <p>{@link #prefetch()} searches these pages for all sites at once, in one query per site root, so the first
+ * renders after startup don't have to.</p>
+ */
+@Singleton
+public class SiteLinkResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(SiteLinkResolver.class);
+
+    private final TemplatingFunctions templatingFunctions;
+    private final TemplateDefinitionRegistry templateDefinitionRegistry;
+    private final I18nContentSupport i18nContentSupport;
+    private final SiteLinkCache siteLinkCache;
+
+    @Inject
+    public SiteLinkResolver(TemplatingFunctions templatingFunctions, TemplateDefinitionRegistry templateDefinitionRegistry, I18nContentSupport i18nContentSupport, SiteLinkCache siteLinkCache) {
+        this.templatingFunctions = templatingFunctions;
+        this.templateDefinitionRegistry = templateDefinitionRegistry;
+        this.i18nContentSupport = i18nContentSupport;
+        this.siteLinkCache = siteLinkCache;
+    }
+
+    /**
+     * Returns the link of the page found by <code>pageFinder</code> below the given site root, or <code>null</code>
+     * if there is none. Pages and links are looked up in the cache by site root and <code>key</code> first.
+     */
+    public String getLink(Node siteRoot, String key, PageFinder pageFinder) throws RepositoryException {
+        if (siteRoot == null || !siteLinkCache.isStarted()) {
+            return templatingFunctions.link(pageFinder.findPage(siteRoot));
+        }
+
+        final String siteRootIdentifier = siteRoot.getIdentifier();
+        final Locale locale = i18nContentSupport.getLocale();
+        String link = siteLinkCache.get(siteRootIdentifier, key, locale);
+
+        if (link == null) {
+            final Node page = getPage(siteRoot, key, pageFinder);
+            link = StringUtils.defaultString(templatingFunctions.link(page));
+            // A page the current user may not read isn't linked, but mustn't be cached as missing for other users either
+            if (page != null || StringUtils.EMPTY.equals(siteLinkCache.getPagePath(siteRootIdentifier, key))) {
+                siteLinkCache.put(siteRootIdentifier, key, locale, link);
+            }
+        }
+        return StringUtils.defaultIfEmpty(link, null);
+    }
+
+    /**
+     * Searches the pages of all navigation area links (see {@link NavigationAreaModel} and {@link DefaultUserLinksResolver})
+     * below every site root and caches their paths.
+     */
+    public void prefetch() {
+        if (!siteLinkCache.isStarted()) {
+            return;
+        }
+        final Map<String, String> keysByTemplateId = getNavigationTemplateIds();
+        if (keysByTemplateId.isEmpty()) {
+            return;
+        }
+
+        MgnlContext.doInSystemContext(new MgnlContext.VoidOp() {
+            @Override
+            public void doExec() {
+                try {
+                    final Session session = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE);
+                    for (Node siteRoot : NodeUtil.getNodes(session.getRootNode(), NodeTypes.Page.NAME)) {
+                        prefetch(siteRoot, keysByTemplateId);
+                    }
+                } catch (RepositoryException e) {
+                    log.warn("Could not prefetch the navigation links.", e);
+                }
+            }
+        });
+    }
+
+    private void prefetch(Node siteRoot, Map<String, String> keysByTemplateId) throws RepositoryException {
+        final String siteRootIdentifier = siteRoot.getIdentifier();
+        final Set<String> foundKeys = new HashSet<>();
+
+        for (Node page : templatingFunctions.contentListByTemplateIds(siteRoot, keysByTemplateId.keySet(), Integer.MAX_VALUE, null, null)) {
+            final String key = keysByTemplateId.get(NodeTypes.Renderable.getTemplate(page));
+            if (key != null && foundKeys.add(key)) {
+                siteLinkCache.putPagePath(siteRootIdentifier, key, page.getPath());
+            }
+        }
+        for (String key : keysByTemplateId.values()) {
+            if (!foundKeys.contains(key)) {
+                siteLinkCache.putPagePath(siteRootIdentifier, key, StringUtils.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Maps the ids of the templates the navigation area links to onto their cache keys: the template id itself for
+     * user pages, the sub type for the about page.
+     */
+    private Map<String, String> getNavigationTemplateIds() {
+        final Map<String, String> keysByTemplateId = new HashMap<>();
+
+        for (TemplateDefinition templateDefinition : templateDefinitionRegistry.getAllDefinitions()) {
+            if (DefaultTemplateTypes.FEATURE.equals(templateDefinition.getType()) && NavigationAreaModel.DEMO_ABOUT_TEMPLATE_SUBTYPE.equals(templateDefinition.getSubtype())) {
+                keysByTemplateId.put(templateDefinition.getId(), NavigationAreaModel.DEMO_ABOUT_TEMPLATE_SUBTYPE);
+            }
+            if (templateDefinition.getAreas() == null) {
+                continue;
+            }
+            for (AreaDefinition areaDefinition : templateDefinition.getAreas().values()) {
+                if (areaDefinition instanceof NavigationAreaDefinition) {
+                    for (UserLinksResolver userLinksResolver : ((NavigationAreaDefinition) areaDefinition).getUserLinksResolvers()) {
+                        if (userLinksResolver instanceof DefaultUserLinksResolver) {
+                            final DefaultUserLinksResolver resolver = (DefaultUserLinksResolver) userLinksResolver;
+                            for (String templateId : new String[]{resolver.getLoginPageTemplateId(), resolver.getProfilePageTemplateId(), resolver.getRegistrationPageTemplateId()}) {
+                                if (templateId != null) {
+                                    keysByTemplateId.put(templateId, templateId);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return keysByTemplateId;
+    }
+
+    /**
+     * Returns the page to link to, as read with the session of the current user. Pages are searched below the site
+     * root as read with the system context, so the cached paths don't depend on the permissions of whoever requested
+     * them first.
+     */
+    private Node getPage(Node siteRoot, String key, final PageFinder pageFinder) throws RepositoryException {
+        final String siteRootIdentifier = siteRoot.getIdentifier();
+        String path = siteLinkCache.getPagePath(siteRootIdentifier, key);
+
+        if (path == null) {
+            path = MgnlContext.doInSystemContext(new MgnlContext.Op<String, RepositoryException>() {
+                @Override
+                public String exec() throws RepositoryException {
+                    final Node systemSiteRoot = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE).getNodeByIdentifier(siteRootIdentifier);
+                    final Node page = pageFinder.findPage(systemSiteRoot);
+                    return page == null ? StringUtils.EMPTY : page.getPath();
+                }
+            });
+            siteLinkCache.putPagePath(siteRootIdentifier, key, path);
+        }
+        if (path.isEmpty() || !siteRoot.getSession().nodeExists(path)) {
+            return null;
+        }
+        return siteRoot.getSession().getNode(path);
+    }
+
+    /**
+     * Searches the page to link to, on cache misses.
+     */
+    public interface PageFinder {
+
+        /**
+         * Returns the page to link to below the given site root, which is read with the system context on cache misses
+         * and may be <code>null</code> if the current page has none; the finder must not read any other node of the
+         * current request.
+         */
+        Node findPage(Node siteRoot) throws RepositoryException;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.search;
+
+import info.magnolia.jcr.util.ContentMap;
+
+/**
+ * A page or content item matching a search, as listed in a {@link SearchResultPage}.
+ */
+public class SearchResult {
+
+    private final ContentMap content;
+    private final String link;
+    private final String excerpt;
+
+    public SearchResult(ContentMap content, String link, String excerpt) {
+        this.content = content;
+        this.link = link;
+        this.excerpt = excerpt;
+    }
+
+    public ContentMap getContent() {
+        return content;
+    }
+
+    public String getLink() {
+        return link;
+    }
+
+    /**
+     * Highlighted excerpt of the matching text or <code>null</code> if the repository provides none.
+     */
+    public String getExcerpt() {
+        return excerpt;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.search;
+
+import java.util.List;
+
+/**
+ * One page of search results, as returned by {@link info.magnolia.demo.travel.model.SearchResultsModel}.
+ *
+ * <p>Results are only collected up to the end of the page, so the total is exact only when the search ran out of
+ * hits; otherwise it is estimated from the number of hits reported by the repository. A search exceeding its time
+ * budget returns the results found so far and is flagged as partial.</p>
+ */
+public class SearchResultPage {
+
+    private final List<SearchResult> results;
+    private final int offset;
+    private final int limit;
+    private final int total;
+    private final boolean exact;
+    private final boolean partial;
+
+    public SearchResultPage(List<SearchResult> results, int offset, int limit, int total, boolean exact, boolean partial) {
+        this.results = results;
+        this.offset = offset;
+        this.limit = limit;
+        this.total = total;
+        this.exact = exact;
+        this.partial = partial;
+    }
+
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Maximum number of results per page; <code>0</code> or less means all results are on one page.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Number of results of the whole search; see {@link #isExact()}.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Whether {@link #getTotal()} is the exact number of results rather than an estimate.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Whether the search exceeded its time budget, i.e. this page may lack results.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+    public boolean hasNext() {
+        return offset + results.size() < total;
+    }
+
+    /**
+     * One-based number of this page.
+     */
+    public int getPageNumber() {
+        return limit > 0 ? offset / limit + 1 : 1;
+    }
+
+    public int getPageCount() {
+        return limit > 0 ? Math.max(1, (total + limit - 1) / limit) : 1;
+    }
+}
@@ -33,6 +33,7 @@
  */
 package info.magnolia.demo.travel.setup;
 
+import info.magnolia.demo.travel.templating.ImageTemplatingFunctions;
 import info.magnolia.jcr.util.NodeTypes;
 import info.magnolia.module.DefaultModuleVersionHandler;
 import info.magnolia.module.InstallContext;
@@ -44,6 +45,7 @@ import info.magnolia.module.delta.CopyNodeTask;
 import info.magnolia.module.delta.CreateNodePathTask;
 import info.magnolia.module.delta.CreateNodeTask;
 import info.magnolia.module.delta.DeltaBuilder;
+import info.magnolia.module.delta.FilterOrderingTask;
 import info.magnolia.module.delta.IsAuthorInstanceDelegateTask;
 import info.magnolia.module.delta.IsInstallSamplesTask;
 import info.magnolia.module.delta.IsModuleInstalledOrRegistered;
@@ -55,6 +57,7 @@ import info.magnolia.module.delta.RemoveNodeTask;
 import info.magnolia.module.delta.SetPropertyTask;
 import info.magnolia.module.delta.Task;
 import info.magnolia.module.site.setup.DefaultSiteExistsDelegateTask;
+import info.magnolia.rendering.module.setup.InstallRendererContextAttributeTask;
 import info.magnolia.repository.RepositoryConstants;
 
 import java.util.ArrayList;
@@ -96,6 +99,10 @@ public class TravelDemoModuleVersionHandler extends DefaultModuleVersionHandler
 
     private final InstallPurSamplesTask installPurSamples = new InstallPurSamplesTask();
 
+    private final Task installImageTemplatingFunctions = new InstallRendererContextAttributeTask("rendering", "freemarker", "imgfn", ImageTemplatingFunctions.class.getName());
+
+    private final Task orderAccessTraceFilter = new FilterOrderingTask("accessTrace", "Place the access trace filter right after the context filter.", new String[]{"context"});
+
     public TravelDemoModuleVersionHandler() {
         register(DeltaBuilder.update("1.1.1", "")
                 .addTask(new IsInstallSamplesTask("Re-Bootstrap website content for travel pages", "Re-bootstrap website content to account for all changes",
@@ -138,6 +145,11 @@ public class TravelDemoModuleVersionHandler extends DefaultModuleVersionHandler
                         )))
                 .addTask(new PartialBootstrapTask("Bootstrap multiStep form demo.", "/mgnl-bootstrap-samples/travel-demo/website.travel.xml", "travel/book-tour"))
         );
+        register(DeltaBuilder.update("1.1.2", "")
+                .addTask(installImageTemplatingFunctions)
+                .addTask(new BootstrapSingleModuleResource("config.server.filters.accessTrace.xml", ImportUUIDBehavior.IMPORT_UUID_COLLISION_REPLACE_EXISTING))
+                .addTask(orderAccessTraceFilter)
+        );
     }
 
     @Override
@@ -155,6 +167,8 @@ public class TravelDemoModuleVersionHandler extends DefaultModuleVersionHandler
         tasks.add(new SetupDemoRolesAndGroupsTask());
         tasks.add(setupAccessPermissionsForDemoUsers);
         tasks.add(setupTargetAppGroupAccessPermissions);
+        tasks.add(installImageTemplatingFunctions);
+        tasks.add(orderAccessTraceFilter);
         return tasks;
     }
 
@@ -0,0 +1,136 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.templating;
+
+import info.magnolia.dam.api.Asset;
+import info.magnolia.dam.api.ItemKey;
+import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.ClassUtils;
+
+/**
+ * Read-only view of an {@link Asset} which can be kept across requests, as cached by {@link RenditionLinkCache}.
+ *
+ * <p>Assets of the <code>dam</code> workspace are bound to the JCR session they were read with, which is closed once
+ * the request ends. A detached asset only keeps its key and the plain values (strings, numbers and booleans) read from
+ * it: the first read of each value and all other calls, e.g. {@link Asset#getContentStream()}, go to the asset as
+ * looked up again by its key in the current context. The DAM API expects assets of its providers, so detached assets
+ * are {@link #attach(Asset) attached} before being passed to it.</p>
+ */
+final class DetachedAsset implements InvocationHandler {
+
+    private static final Object NULL = new Object();
+
+    private final String assetKey;
+    private final ItemKey itemKey;
+    private final DamTemplatingFunctions damTemplatingFunctions;
+    private final ConcurrentMap<Method, Object> values = new ConcurrentHashMap<>();
+
+    private DetachedAsset(ItemKey itemKey, DamTemplatingFunctions damTemplatingFunctions) {
+        this.assetKey = itemKey.asString();
+        this.itemKey = itemKey;
+        this.damTemplatingFunctions = damTemplatingFunctions;
+    }
+
+    /**
+     * Returns a detached view of the given asset.
+     */
+    static Asset detach(Asset asset, DamTemplatingFunctions damTemplatingFunctions) {
+        return (Asset) Proxy.newProxyInstance(Asset.class.getClassLoader(), new Class<?>[] {Asset.class}, new DetachedAsset(asset.getItemKey(), damTemplatingFunctions));
+    }
+
+    /**
+     * Returns the asset looked up in the current context if the given one is detached, the given asset otherwise.
+     */
+    static Asset attach(Asset asset) {
+        if (asset != null && Proxy.isProxyClass(asset.getClass()) && Proxy.getInvocationHandler(asset) instanceof DetachedAsset) {
+            return ((DetachedAsset) Proxy.getInvocationHandler(asset)).lookup();
+        }
+        return asset;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            if ("equals".equals(method.getName())) {
+                return args[0] instanceof Asset && assetKey.equals(((Asset) args[0]).getItemKey().asString());
+            }
+            return "hashCode".equals(method.getName()) ? assetKey.hashCode() : "DetachedAsset[" + assetKey + "]";
+        }
+        if ("getItemKey".equals(method.getName()) && method.getParameterTypes().length == 0) {
+            return itemKey;
+        }
+        if (!isPlainValue(method)) {
+            return call(lookup(), method, args);
+        }
+
+        Object value = values.get(method);
+        if (value == null) {
+            value = call(lookup(), method, args);
+            values.put(method, value != null ? value : NULL);
+        }
+        return value != NULL ? value : null;
+    }
+
+    private Asset lookup() {
+        final Asset asset = damTemplatingFunctions.getAsset(assetKey);
+        if (asset == null) {
+            throw new IllegalStateException("Asset [" + assetKey + "] no longer exists.");
+        }
+        return asset;
+    }
+
+    private static Object call(Asset asset, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(asset, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Whether the method is a getter of an immutable value, which can be read once and kept.
+     */
+    private static boolean isPlainValue(Method method) {
+        final Class<?> type = method.getReturnType();
+        return method.getParameterTypes().length == 0 && (type == String.class || ClassUtils.isPrimitiveOrWrapper(type)) && type != void.class;
+    }
+}
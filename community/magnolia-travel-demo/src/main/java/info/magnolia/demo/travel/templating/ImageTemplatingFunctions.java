@@ -0,0 +1,187 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.templating;
+
+import info.magnolia.dam.api.Asset;
+import info.magnolia.dam.api.AssetRendition;
+import info.magnolia.dam.jcr.DamConstants;
+import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+import info.magnolia.demo.travel.trace.AccessTrace;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Image functions for templating, exposed as <code>imgfn</code>.
+ *
+ * <p>Rendition links are cached by asset key and rendition name until the <code>dam</code> workspace changes, once
+ * the cache is {@link #start() started} by the {@link info.magnolia.demo.travel.TravelDemoModule}. Cards render the
+ * same images on many pages, which thus no longer resolve the asset renditions every time. Assets looked up by key
+ * are kept in the same cache, {@link DetachedAsset detached} from the session of the request which read them.</p>
+ */
+@Singleton
+public class ImageTemplatingFunctions {
+
+    /**
+     * Renditions with a 4:3 aspect ratio, as configured in the travel demo theme.
+     */
+    private static final Variants CONSTRAINED_VARIANTS = new Variants("constrained", "960x720",
+            new String[] {"480x360", "960x720", "1366x1024", "1600x1200"}, new int[] {480, 960, 1366, 1600});
+
+    /**
+     * Renditions keeping the aspect ratio of the original image.
+     */
+    private static final Variants UNCONSTRAINED_VARIANTS = new Variants("unconstrained", "960",
+            new String[] {"480", "960", "1366", "1600"}, new int[] {480, 960, 1366, 1600});
+
+    private final DamTemplatingFunctions damTemplatingFunctions;
+    private final RenditionLinkCache renditionLinkCache = new RenditionLinkCache();
+
+    @Inject
+    public ImageTemplatingFunctions(DamTemplatingFunctions damTemplatingFunctions) {
+        this.damTemplatingFunctions = damTemplatingFunctions;
+    }
+
+    /**
+     * Returns the asset of the given key or <code>null</code> if there is none.
+     *
+     * <p>Once the cache is started, the asset is returned as looked up in this request and kept detached for the
+     * following ones.</p>
+     */
+    public Asset getAsset(String assetKey) {
+        if (assetKey == null) {
+            return null;
+        }
+
+        final Asset cached = renditionLinkCache.getAsset(assetKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        AccessTrace.record(AccessTrace.Kind.ASSET, DamConstants.WORKSPACE, assetKey);
+        final Asset asset = damTemplatingFunctions.getAsset(assetKey);
+        if (asset != null && renditionLinkCache.isStarted()) {
+            renditionLinkCache.putAsset(assetKey, DetachedAsset.detach(asset, damTemplatingFunctions));
+        }
+        return asset;
+    }
+
+    /**
+     * Returns the link to the given rendition of the asset or an empty String if there is no such rendition.
+     */
+    public String getRenditionLink(Asset asset, String renditionName) {
+        if (asset == null) {
+            return StringUtils.EMPTY;
+        }
+
+        final String assetKey = asset.getItemKey().asString();
+        String link = renditionLinkCache.get(assetKey, renditionName);
+
+        if (link == null) {
+            final AssetRendition rendition = damTemplatingFunctions.getRendition(DetachedAsset.attach(asset), renditionName);
+            link = rendition != null ? StringUtils.defaultString(rendition.getLink()) : StringUtils.EMPTY;
+            if (renditionLinkCache.isStarted()) {
+                renditionLinkCache.put(assetKey, renditionName, link);
+            }
+        }
+
+        return link;
+    }
+
+    /**
+     * Returns the <code>srcset</code> and fallback link of the asset for the responsive image variants of the theme,
+     * or <code>null</code> if there is no asset.
+     *
+     * @param constrainAspectRatio whether to use the renditions with a 4:3 aspect ratio
+     */
+    public ResponsiveImage getResponsiveImage(Asset asset, boolean constrainAspectRatio) {
+        if (asset == null) {
+            return null;
+        }
+
+        final Variants variants = constrainAspectRatio ? CONSTRAINED_VARIANTS : UNCONSTRAINED_VARIANTS;
+        final String assetKey = asset.getItemKey().asString();
+        ResponsiveImage image = renditionLinkCache.getImage(assetKey, variants.name);
+
+        if (image == null) {
+            final StringBuilder srcset = new StringBuilder();
+            for (int i = 0; i < variants.renditionNames.length; i++) {
+                final String link = getRenditionLink(asset, variants.renditionNames[i]);
+                if (StringUtils.isNotEmpty(link)) {
+                    if (srcset.length() > 0) {
+                        srcset.append(", ");
+                    }
+                    srcset.append(link).append(' ').append(variants.widths[i]).append('w');
+                }
+            }
+            image = new ResponsiveImage(srcset.toString(), getRenditionLink(asset, variants.fallbackRenditionName));
+            if (renditionLinkCache.isStarted()) {
+                renditionLinkCache.putImage(assetKey, variants.name, image);
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Starts observing the <code>dam</code> workspace and caching rendition links.
+     */
+    public void start() {
+        renditionLinkCache.start();
+    }
+
+    public void stop() {
+        renditionLinkCache.stop();
+    }
+
+    /**
+     * Rendition names and their widths used for one kind of responsive image.
+     */
+    private static class Variants {
+
+        private final String name;
+        private final String fallbackRenditionName;
+        private final String[] renditionNames;
+        private final int[] widths;
+
+        private Variants(String name, String fallbackRenditionName, String[] renditionNames, int[] widths) {
+            this.name = name;
+            this.fallbackRenditionName = fallbackRenditionName;
+            this.renditionNames = renditionNames;
+            this.widths = widths;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.templating;
+
+import info.magnolia.dam.api.Asset;
+import info.magnolia.dam.jcr.DamConstants;
+import info.magnolia.demo.travel.cache.ObservedCache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Links to asset renditions per asset key and rendition name, as used by {@link ImageTemplatingFunctions}, along with
+ * the {@link ResponsiveImage}s built from them and the {@link DetachedAsset detached} assets looked up by key.
+ *
+ * <p>Entries are kept until an asset of the <code>dam</code> workspace changes. A missing rendition is cached as empty
+ * link.</p>
+ */
+public class RenditionLinkCache extends ObservedCache {
+
+    private final ConcurrentMap<String, String> links = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ResponsiveImage> images = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Asset> assets = new ConcurrentHashMap<>();
+
+    public RenditionLinkCache() {
+        invalidateOnChangesOf(DamConstants.WORKSPACE);
+    }
+
+    /**
+     * Returns the cached link of the rendition or <code>null</code> if it has not been resolved yet.
+     */
+    public String get(String assetKey, String renditionName) {
+        return links.get(getKey(assetKey, renditionName));
+    }
+
+    public void put(String assetKey, String renditionName, String link) {
+        links.put(getKey(assetKey, renditionName), link);
+    }
+
+    /**
+     * Returns the cached responsive image of the asset for the given set of variants or <code>null</code>.
+     */
+    public ResponsiveImage getImage(String assetKey, String variants) {
+        return images.get(getKey(assetKey, variants));
+    }
+
+    public void putImage(String assetKey, String variants, ResponsiveImage image) {
+        images.put(getKey(assetKey, variants), image);
+    }
+
+    /**
+     * Returns the cached (detached) asset of the given key or <code>null</code> if it has not been looked up yet.
+     */
+    public Asset getAsset(String assetKey) {
+        return assets.get(assetKey);
+    }
+
+    public void putAsset(String assetKey, Asset asset) {
+        assets.put(assetKey, asset);
+    }
+
+    @Override
+    public void invalidate() {
+        links.clear();
+        images.clear();
+        assets.clear();
+    }
+
+    private static String getKey(String assetKey, String renditionName) {
+        return assetKey + "|" + renditionName;
+    }
+}
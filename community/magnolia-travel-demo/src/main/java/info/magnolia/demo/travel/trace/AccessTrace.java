@@ -0,0 +1,227 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.trace;
+
+import info.magnolia.context.Context;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.objectfactory.Components;
+import info.magnolia.rendering.engine.RenderingEngine;
+import info.magnolia.rendering.template.RenderableDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in trace of the JCR queries, node lookups and DAM asset resolutions made while a request renders, each
+ * attributed to the model (or template) of the component rendering at the time.
+ *
+ * <p>Tracing is enabled by the <code>{@value #ENABLED_PROPERTY}</code> system property. Repeated identical accesses
+ * within a request, typically lookups which should have been done once, are logged as they happen; once the request
+ * has been handled, the {@link AccessTraceFilter} which started the trace logs its report, i.e. the number of
+ * accesses per model followed by the repeated ones, see {@link #getReport()}.</p>
+ *
+ * <p>Accesses are recorded from any thread running with the {@link info.magnolia.context.WebContext} of the request;
+ * lookups in the system context aren't attributed to a request and not traced.</p>
+ */
+public final class AccessTrace {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTrace.class);
+
+    public static final String ENABLED_PROPERTY = "magnolia.demo.travel.trace";
+
+    /**
+     * Request attribute (i.e. {@link Context#LOCAL_SCOPE}) under which the trace of a request is kept, see
+     * {@link #getCurrent()}.
+     */
+    public static final String ATTRIBUTE = "info.magnolia.demo.travel.trace.AccessTrace";
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Kinds of traced access.
+     */
+    public enum Kind {
+        QUERY, NODE, ASSET
+    }
+
+    private final String uri;
+    private final List<Access> accesses = new ArrayList<>();
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+    AccessTrace(String uri) {
+        this.uri = uri;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        AccessTrace.enabled = enabled;
+    }
+
+    /**
+     * Records an access of the current request, e.g. a query of <code>workspace</code> for <code>key</code>, if
+     * tracing is enabled and the request is traced by the {@link AccessTraceFilter}. Safe to call from several threads
+     * sharing the context of a request.
+     */
+    public static void record(Kind kind, String workspace, String key) {
+        if (!enabled) {
+            return;
+        }
+
+        final AccessTrace trace = getCurrent();
+        if (trace != null) {
+            trace.add(new Access(kind, workspace, key, getCurrentComponent()));
+        }
+    }
+
+    /**
+     * Returns the trace of the current request or <code>null</code> if the request isn't traced.
+     */
+    public static AccessTrace getCurrent() {
+        return MgnlContext.hasInstance() && MgnlContext.isWebContext() ? MgnlContext.<AccessTrace>getAttribute(ATTRIBUTE, Context.LOCAL_SCOPE) : null;
+    }
+
+    synchronized void add(Access access) {
+        accesses.add(access);
+
+        final String key = access.getKind() + " " + access.getWorkspace() + ":" + access.getKey();
+        final Integer count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+        if (count != null && count == 1) {
+            log.warn("Repeated {} within request [{}], now by {}.", key, uri, access.getComponent());
+        }
+        log.debug("{} by {}", key, access.getComponent());
+    }
+
+    public synchronized List<Access> getAccesses() {
+        return Collections.unmodifiableList(new ArrayList<>(accesses));
+    }
+
+    /**
+     * Returns the accesses made more than once, along with how many times.
+     */
+    public synchronized Map<String, Integer> getRepeated() {
+        final Map<String, Integer> repeated = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            if (count.getValue() > 1) {
+                repeated.put(count.getKey(), count.getValue());
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Returns the number of accesses per component followed by the repeated accesses.
+     */
+    public synchronized String getReport() {
+        final Map<String, Integer> perComponent = new LinkedHashMap<>();
+        for (Access access : accesses) {
+            final Integer count = perComponent.get(access.getComponent());
+            perComponent.put(access.getComponent(), count == null ? 1 : count + 1);
+        }
+
+        final StringBuilder report = new StringBuilder();
+        report.append(accesses.size()).append(" accesses\n");
+        for (Map.Entry<String, Integer> count : perComponent.entrySet()) {
+            report.append("  ").append(count.getKey()).append(": ").append(count.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Integer> repeated : getRepeated().entrySet()) {
+            report.append("  repeated ").append(repeated.getValue()).append("x: ").append(repeated.getKey()).append('\n');
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+
+    /**
+     * Returns the simple name of the model of the rendering component, its template id if it has no model.
+     */
+    private static String getCurrentComponent() {
+        try {
+            final RenderableDefinition definition = Components.getComponent(RenderingEngine.class).getRenderingContext().getRenderableDefinition();
+            if (definition != null) {
+                return definition.getModelClass() != null ? definition.getModelClass().getSimpleName() : StringUtils.defaultString(definition.getId(), "unknown");
+            }
+        } catch (RuntimeException e) {
+            // Not rendering, e.g. outside of the rendering engine
+        }
+        return "unknown";
+    }
+
+    /**
+     * A traced access.
+     */
+    public static final class Access {
+
+        private final Kind kind;
+        private final String workspace;
+        private final String key;
+        private final String component;
+
+        Access(Kind kind, String workspace, String key, String component) {
+            this.kind = kind;
+            this.workspace = workspace;
+            this.key = key;
+            this.component = component;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getWorkspace() {
+            return workspace;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getComponent() {
+            return component;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.trace;
+
+import info.magnolia.cms.filters.OncePerRequestAbstractMgnlFilter;
+import info.magnolia.context.Context;
+import info.magnolia.context.MgnlContext;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the {@link AccessTrace} of a request and logs its report once the request has been handled. Requests pass
+ * through untouched unless tracing is enabled.
+ *
+ * <p>Installed as <code>/server/filters/accessTrace</code> right after the context filter, so accesses are recorded
+ * for the whole of the request.</p>
+ */
+public class AccessTraceFilter extends OncePerRequestAbstractMgnlFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTraceFilter.class);
+
+    @Override
+    public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!AccessTrace.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final AccessTrace trace = new AccessTrace(request.getRequestURI());
+        MgnlContext.setAttribute(AccessTrace.ATTRIBUTE, trace, Context.LOCAL_SCOPE);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MgnlContext.removeAttribute(AccessTrace.ATTRIBUTE, Context.LOCAL_SCOPE);
+            log.info("Accesses of request [{}]: {}", request.getRequestURI(), trace.getReport());
+        }
+    }
+}
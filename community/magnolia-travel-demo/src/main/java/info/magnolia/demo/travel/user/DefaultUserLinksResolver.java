@@ -37,7 +37,11 @@ import info.magnolia.cms.core.AggregationState;
 import info.magnolia.cms.security.LogoutFilter;
 import info.magnolia.cms.security.UserManager;
 import info.magnolia.context.WebContext;
+import info.magnolia.demo.travel.navigation.SiteLinkResolver;
+import info.magnolia.demo.travel.trace.AccessTrace;
+import info.magnolia.objectfactory.Components;
 import info.magnolia.rendering.template.type.DefaultTemplateTypes;
+import info.magnolia.repository.RepositoryConstants;
 import info.magnolia.templating.functions.TemplatingFunctions;
 
 import java.util.Collections;
@@ -50,6 +54,9 @@ import javax.jcr.RepositoryException;
 
 /**
  * Resolver of user (profile, registration pages) links.
+ *
+ * <p>The links of the pages found by template id are kept per site root by the {@link SiteLinkResolver}, so rendering
+ * the user links does not query the <code>website</code> workspace again until it changes.</p>
  */
 public class DefaultUserLinksResolver implements UserLinksResolver {
 
@@ -62,17 +69,27 @@ public class DefaultUserLinksResolver implements UserLinksResolver {
     private final Provider<WebContext> webContextProvider;
     private final Provider<AggregationState> aggregationStateProvider;
     private final TemplatingFunctions templatingFunctions;
+    private final SiteLinkResolver siteLinkResolver;
 
     @Inject
-    public DefaultUserLinksResolver(Provider<WebContext> webContextProvider, Provider<AggregationState> aggregationStateProvider, TemplatingFunctions templatingFunctions) {
+    public DefaultUserLinksResolver(Provider<WebContext> webContextProvider, Provider<AggregationState> aggregationStateProvider, TemplatingFunctions templatingFunctions, SiteLinkResolver siteLinkResolver) {
         this.webContextProvider = webContextProvider;
         this.aggregationStateProvider = aggregationStateProvider;
         this.templatingFunctions = templatingFunctions;
+        this.siteLinkResolver = siteLinkResolver;
+    }
+
+    /**
+     * @deprecated since 1.1.2, use {@link #DefaultUserLinksResolver(Provider, Provider, TemplatingFunctions, SiteLinkResolver)} instead.
+     */
+    @Deprecated
+    public DefaultUserLinksResolver(Provider<WebContext> webContextProvider, Provider<AggregationState> aggregationStateProvider, TemplatingFunctions templatingFunctions) {
+        this(webContextProvider, aggregationStateProvider, templatingFunctions, Components.getComponent(SiteLinkResolver.class));
     }
 
     @Override
     public boolean useForCurrentPage() throws RepositoryException {
-        return this.findPage(loginPageTemplateId) != null;
+        return this.getPageLink(loginPageTemplateId) != null;
     }
 
     @Override
@@ -83,17 +100,17 @@ public class DefaultUserLinksResolver implements UserLinksResolver {
 
     @Override
     public String getProfilePageLink() throws RepositoryException {
-        return profilePageTemplateId == null ? null : templatingFunctions.link(this.findPage(profilePageTemplateId));
+        return profilePageTemplateId == null ? null : this.getPageLink(profilePageTemplateId);
     }
 
     @Override
     public String getRegistrationPageLink() throws RepositoryException {
-        return registrationPageTemplateId == null ? null : templatingFunctions.link(this.findPage(registrationPageTemplateId));
+        return registrationPageTemplateId == null ? null : this.getPageLink(registrationPageTemplateId);
     }
 
     @Override
     public String getLoginPageLink() throws RepositoryException {
-        return templatingFunctions.link(this.findPage(loginPageTemplateId));
+        return this.getPageLink(loginPageTemplateId);
     }
 
     @Override
@@ -102,10 +119,37 @@ public class DefaultUserLinksResolver implements UserLinksResolver {
     }
 
     protected Node findPage(String templateId) throws RepositoryException {
-        List<javax.jcr.Node> profilePages = templatingFunctions.contentListByTemplateIds(templatingFunctions.siteRoot(aggregationStateProvider.get().getMainContentNode(), rootTemplateType), Collections.singleton(templateId), 1, null, null);
+        return this.findPage(this.getSiteRoot(), templateId);
+    }
+
+    /**
+     * Returns the first page with the given template below the given site root, or <code>null</code> if there is none.
+     * Only the given site root is read, as pages may be searched outside of the current request.
+     */
+    protected Node findPage(Node siteRoot, String templateId) throws RepositoryException {
+        AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, templateId);
+        List<javax.jcr.Node> profilePages = templatingFunctions.contentListByTemplateIds(siteRoot, Collections.singleton(templateId), 1, null, null);
         return profilePages.size() == 0 ? null : profilePages.get(0);
     }
 
+    /**
+     * Returns the link of the first page with the given template below the current site root or <code>null</code> if
+     * there is none; links are cached per site root until the <code>website</code> workspace changes. The site root is
+     * read from the current request before the page is searched, since the search may run in the system context.
+     */
+    protected String getPageLink(final String templateId) throws RepositoryException {
+        return siteLinkResolver.getLink(this.getSiteRoot(), templateId, new SiteLinkResolver.PageFinder() {
+            @Override
+            public Node findPage(Node siteRoot) throws RepositoryException {
+                return DefaultUserLinksResolver.this.findPage(siteRoot, templateId);
+            }
+        });
+    }
+
+    private Node getSiteRoot() {
+        return templatingFunctions.siteRoot(aggregationStateProvider.get().getMainContentNode(), rootTemplateType);
+    }
+
     public String getProfilePageTemplateId() {
         return profilePageTemplateId;
     }
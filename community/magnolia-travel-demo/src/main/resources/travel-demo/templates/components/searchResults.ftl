@@ -1,5 +1,23 @@
 [#-------------- ASSIGNMENTS --------------]
-[#assign queryStr = ctx.getParameter('queryStr')!?html]
+[#assign queryStr = model.queryString!?html]
+
+[#-- Pager of a result page (see SearchResultPage and TourPage), linking pages through the given parameter --]
+[#macro searchPager resultPage pageParameter]
+  [#if resultPage.pageCount > 1]
+    [#assign searchUrl = "?queryStr=" + model.queryString?url + "&amp;" + pageParameter + "=" /]
+    <nav>
+        <ul class="pager">
+            [#if resultPage.hasPrevious()]
+                <li class="previous"><a href="${searchUrl}${resultPage.pageNumber - 1}">${i18n['search.previous']}</a></li>
+            [/#if]
+            <li>${i18n.get('search.page', [resultPage.pageNumber, resultPage.pageCount])}</li>
+            [#if resultPage.hasNext()]
+                <li class="next"><a href="${searchUrl}${resultPage.pageNumber + 1}">${i18n['search.next']}</a></li>
+            [/#if]
+        </ul>
+    </nav>
+  [/#if]
+[/#macro]
 
 [#-------------- RENDERING --------------]
 [#if content.headline?has_content]
@@ -7,38 +25,67 @@
 [/#if]
 
 [#if queryStr?has_content]
-  [#assign searchResults = searchfn.searchPages(queryStr, '/travel') /]
-  [#assign recordsFound = searchResults?size /]
+  [#assign pageResults = model.pageResults /]
 
-  <h3><em>${recordsFound}</em> ${i18n['search.pagesFoundFor']} "${queryStr}"</span></h3>
+  <h3><em>[#if !pageResults.exact]~[/#if]${pageResults.total}</em> ${i18n['search.pagesFoundFor']} "${queryStr}"</span></h3>
+  [#if pageResults.partial]
+      <p class="text-muted">${i18n['search.partial']}</p>
+  [/#if]
 
   <div class="list-group">
-      [#if searchResults?has_content]
-          [#list searchResults as item]
-              <a href="${cmsfn.link(item)}" class="list-group-item">
-                  <h4 class="list-group-item-heading">${item.title!}</h4>
-                  <p class="list-group-item-text">${item.excerpt!}</p>
-              </a>
-          [/#list]
-      [/#if]
+      [#list pageResults.results as item]
+          <a href="${item.link!}" class="list-group-item">
+              <h4 class="list-group-item-heading">${item.content.title!}</h4>
+              <p class="list-group-item-text">${item.excerpt!}</p>
+          </a>
+      [/#list]
   </div>
+  [@searchPager pageResults "page" /]
 
-  [#assign searchResults = searchfn.searchContent('tours', queryStr, '/magnolia-travels', 'mgnl:content') /]
-  [#assign recordsFound = searchResults?size /]
+  [#if tourfn??]
+    [#-- Tours are searched in the in-memory index of the tours module, one page at a time --]
+    [#assign toursPageParam = ctx.getParameter('toursPage')!'' /]
+    [#assign toursPageNumber = 1 /]
+    [#if toursPageParam?matches('[1-9][0-9]{0,5}')]
+      [#assign toursPageNumber = toursPageParam?number /]
+    [/#if]
+    [#assign tourPage = tourfn.searchTours(model.queryString, (toursPageNumber - 1) * def.pageSize, def.pageSize) /]
 
-  <h3><em>${recordsFound}</em> ${i18n['search.toursFoundFor']} "${queryStr}"</span></h3>
+    <h3><em>${tourPage.total}</em> ${i18n['search.toursFoundFor']} "${queryStr}"</span></h3>
 
-  <div class="list-group">
-  [#if searchResults?has_content]
-      [#list searchResults as item]
-          <a href="${cmsfn.link(item)}" class="list-group-item search-result clearfix">
-             <h4 class="list-group-item-heading">${item.description!}</h4>
-             <img src="${damfn.getAssetLink(item.image)}" class="img-responsive" alt="${item.description!}"/>
-             <p class="list-group-item-text">${item.excerpt!}</p>
-          </a>
-      [/#list]
+    <div class="list-group">
+    [#list tourPage.tours as tour]
+        <a href="${tour.link!}" class="list-group-item search-result clearfix">
+           <h4 class="list-group-item-heading">${tour.name!}</h4>
+           [#if tour.image??]
+           <img src="${imgfn.getRenditionLink(tour.image, '480x360')}" class="img-responsive" alt="${tour.name!}"/>
+           [/#if]
+           <p class="list-group-item-text">${tour.description!}</p>
+        </a>
+    [/#list]
+    </div>
+    [@searchPager tourPage "toursPage" /]
+  [#else]
+    [#assign tourResults = model.getContentResults('tours', '/magnolia-travels', 'mgnl:content', 'toursPage') /]
+
+    <h3><em>[#if !tourResults.exact]~[/#if]${tourResults.total}</em> ${i18n['search.toursFoundFor']} "${queryStr}"</span></h3>
+    [#if tourResults.partial]
+        <p class="text-muted">${i18n['search.partial']}</p>
+    [/#if]
+
+    <div class="list-group">
+    [#list tourResults.results as item]
+        <a href="${item.link!}" class="list-group-item search-result clearfix">
+           <h4 class="list-group-item-heading">${item.content.description!}</h4>
+           [#if item.content.image?has_content]
+           <img src="${damfn.getAssetLink(item.content.image)}" class="img-responsive" alt="${item.content.description!}"/>
+           [/#if]
+           <p class="list-group-item-text">${item.excerpt!}</p>
+        </a>
+    [/#list]
+    </div>
+    [@searchPager tourResults "toursPage" /]
   [/#if]
-  </div>
 
 [#else]
   [#if cmsfn.isEditMode()]
@@ -53,29 +53,12 @@
 [/#macro]
 
 
-[#-- Macro to render a responsive image with the variations configured in the theme. --]
+[#-- Macro to render a responsive image with the variations configured in the theme.
+        The srcset and fallback link are built (and cached) by imgfn for the 4:3 constrained and unconstrained renditions. --]
 [#macro responsiveImageTravel asset  alt="" title="" cssClass="" additional="" constrainAspectRatio=false]
-
-    [#if constrainAspectRatio ]
-        [#assign srcs = [
-            {"name":"480x360", "width":"480"},
-            {"name":"960x720", "width":"960"},
-            {"name":"1366x1024","width":"1366"},
-            {"name":"1600x1200", "width":"1600"}]]
-
-        [#assign fallback="960x720"]
-
-        [@responsiveImageLazySizes asset alt title cssClass srcs fallback additional /]
-    [#else]
-        [#assign srcs = [
-            {"name":"480", "width":"480"},
-            {"name":"960", "width":"960"},
-            {"name":"1366","width":"1366"},
-            {"name":"1600","width":"1600"}]]
-
-        [#assign fallback="960"]
-
-        [@responsiveImageLazySizes asset alt title cssClass srcs fallback additional /]
+    [#if asset?exists]
+        [#assign responsiveImage = imgfn.getResponsiveImage(asset, constrainAspectRatio)]
+        [@lazySizesImage responsiveImage.srcset responsiveImage.fallbackLink alt title cssClass additional /]
     [/#if]
 [/#macro]
 
@@ -83,19 +66,24 @@
         Use data-srcset attribute to only load the size of image that the current image width requires --]
 [#macro responsiveImageLazySizes asset  alt="" title="" cssClass="" srcs="" fallbackName="" additional="" ]
     [#if asset?exists]
-        [#assign cssClass = cssClass + " lazyload"]
-        [#assign rendition = damfn.getRendition(asset, fallbackName)!]
-        <noscript>
-            <img class="${cssClass}" src="${rendition.link}" alt="${alt}" title="${title}" ${additional} />
-        </noscript>
-        <img data-sizes="auto" class="${cssClass} lazyload" ${additional} src="data:image/gif;base64,R0lGODlhAQABAAAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw==" alt="${alt}" title="${title}"
-             data-srcset="[#compress]
-                [#list srcs as src]
-                    [#assign rendition = damfn.getRendition(asset, src.name)!]
-                    [#if rendition?exists && rendition?has_content]
-                        ${rendition.link} ${src.width}w,
-                    [/#if]
-                [/#list]
-            [/#compress]" />
+        [#assign srcset][#compress]
+            [#list srcs as src]
+                [#assign renditionLink = imgfn.getRenditionLink(asset, src.name)]
+                [#if renditionLink?has_content]
+                    ${renditionLink} ${src.width}w,
+                [/#if]
+            [/#list]
+        [/#compress][/#assign]
+        [@lazySizesImage srcset imgfn.getRenditionLink(asset, fallbackName) alt title cssClass additional /]
     [/#if]
 [/#macro]
+
+[#-- Renders the lazysizes markup for an already joined srcset and fallback link. --]
+[#macro lazySizesImage srcset fallbackLink alt="" title="" cssClass="" additional=""]
+    [#assign cssClass = cssClass + " lazyload"]
+    <noscript>
+        <img class="${cssClass}" src="${fallbackLink}" alt="${alt}" title="${title}" ${additional} />
+    </noscript>
+    <img data-sizes="auto" class="${cssClass} lazyload" ${additional} src="data:image/gif;base64,R0lGODlhAQABAAAAACH5BAEKAAEALAAAAAABAAEAAAICTAEAOw==" alt="${alt}" title="${title}"
+         data-srcset="${srcset}" />
+[/#macro]
@@ -1,6 +1,7 @@
 [#--
 Customized /mtk/templates/macros/navigation.ftl macro for travel-demo project.
 Uncommented and adjusted section for resolving menu for destination and travel from the category content app.
+The category menus are provided (and cached) by the CategoryNavigationAreaModel of the navigation area.
 --]
 [#macro navigation navParentItem depth=1 expandAll=false navClass="nav"]
 
@@ -17,9 +18,9 @@ Uncommented and adjusted section for resolving menu for destination and travel f
                     </a>
 
                     <ul class="dropdown-menu" role="menu">
-                        [#assign navContentItems = navfn.navItemsFromApp("category", "/destinations", "mgnl:category")]
-                        [#list navContentItems as navContentItem]
-                            <li><a href="${navfn.linkWithSelector(navItem, navContentItem)!"#"}">${navContentItem.displayName!navContentItem.@name}</a></li>
+                        [#assign categoryLinks = model.getCategoryNavigation(navItem, "/destinations")]
+                        [#list categoryLinks as categoryLink]
+                            <li><a href="${categoryLink.link!"#"}">${categoryLink.label}</a></li>
                         [/#list]
                     </ul>
                 </li>
@@ -31,9 +32,9 @@ Uncommented and adjusted section for resolving menu for destination and travel f
                         </a>
 
                         <ul class="dropdown-menu" role="menu">
-                            [#assign navContentItems = navfn.navItemsFromApp("category", "/tour-types", "mgnl:category")]
-                            [#list navContentItems as navContentItem]
-                                <li><a href="${navfn.linkWithSelector(navItem, navContentItem)!"#"}">${navContentItem.displayName!navContentItem.@name}</a></li>
+                            [#assign categoryLinks = model.getCategoryNavigation(navItem, "/tour-types")]
+                            [#list categoryLinks as categoryLink]
+                                <li><a href="${categoryLink.link!"#"}">${categoryLink.label}</a></li>
                             [/#list]
                         </ul>
                     </li>
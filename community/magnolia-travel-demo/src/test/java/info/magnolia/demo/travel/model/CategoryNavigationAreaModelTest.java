@@ -0,0 +1,136 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.model;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.cms.i18n.I18nContentSupport;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.context.SystemContext;
+import info.magnolia.demo.travel.navigation.CategoryNavigationCache;
+import info.magnolia.demo.travel.navigation.NavigationLink;
+import info.magnolia.demo.travel.navigation.SiteLinkResolver;
+import info.magnolia.jcr.util.ContentMap;
+import info.magnolia.module.categorization.CategorizationModule;
+import info.magnolia.rendering.model.RenderingModel;
+import info.magnolia.rendering.template.AreaDefinition;
+import info.magnolia.templating.functions.TemplatingFunctions;
+import info.magnolia.test.ComponentsTestUtil;
+import info.magnolia.test.mock.MockContext;
+import info.magnolia.test.mock.jcr.MockNode;
+import info.magnolia.test.mock.jcr.MockSession;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.jcr.Node;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link CategoryNavigationAreaModel}.
+ */
+public class CategoryNavigationAreaModelTest {
+
+    private TemplatingFunctions templatingFunctions;
+    private CategoryNavigationAreaModel model;
+    private MockNode overviewPage;
+
+    @Before
+    public void setUp() throws Exception {
+        final MockSession categorySession = new MockSession(CategorizationModule.CATEGORIZATION_WORKSPACE);
+        final Node destinations = categorySession.getRootNode().addNode("destinations", "mgnl:category");
+        destinations.addNode("asia", "mgnl:category").setProperty("displayName", "Asia");
+        destinations.addNode("europe", "mgnl:category");
+        destinations.addNode("notes", "mgnl:contentNode");
+
+        // Menus are shared by all users, so categories are read with the system context only
+        final MockContext systemContext = new MockContext();
+        systemContext.addSession(CategorizationModule.CATEGORIZATION_WORKSPACE, categorySession);
+        ComponentsTestUtil.setInstance(SystemContext.class, systemContext);
+        MgnlContext.setInstance(new MockContext());
+
+        overviewPage = new MockNode("destinations");
+
+        templatingFunctions = mock(TemplatingFunctions.class);
+        when(templatingFunctions.link(overviewPage)).thenReturn("/travel/destinations.html");
+        when(templatingFunctions.wrapForI18n(any(Node.class))).thenAnswer(new Answer<Node>() {
+            @Override
+            public Node answer(InvocationOnMock invocation) throws Throwable {
+                return (Node) invocation.getArguments()[0];
+            }
+        });
+
+        final I18nContentSupport i18nContentSupport = mock(I18nContentSupport.class);
+        when(i18nContentSupport.getLocale()).thenReturn(Locale.ENGLISH);
+
+        model = new CategoryNavigationAreaModel(overviewPage, mock(AreaDefinition.class), mock(RenderingModel.class), templatingFunctions, mock(SiteLinkResolver.class),
+                new CategoryNavigationCache(), i18nContentSupport);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ComponentsTestUtil.clear();
+        MgnlContext.setInstance(null);
+    }
+
+    @Test
+    public void categoryNavigationLinksOverviewPageWithCategorySelectors() throws Exception {
+        // WHEN
+        final List<NavigationLink> menu = model.getCategoryNavigation(new ContentMap(overviewPage), "/destinations");
+
+        // THEN
+        assertThat(menu.size(), is(2));
+        assertThat(menu.get(0).getLabel(), is("Asia"));
+        assertThat(menu.get(0).getLink(), is("/travel/destinations~asia~.html"));
+        assertThat(menu.get(1).getLabel(), is("europe"));
+        assertThat(menu.get(1).getLink(), is("/travel/destinations~europe~.html"));
+    }
+
+    @Test
+    public void categoryNavigationIsEmptyForMissingFolder() throws Exception {
+        // WHEN
+        final List<NavigationLink> menu = model.getCategoryNavigation(new ContentMap(overviewPage), "/tour-types");
+
+        // THEN
+        assertThat(menu.isEmpty(), is(true));
+    }
+
+}
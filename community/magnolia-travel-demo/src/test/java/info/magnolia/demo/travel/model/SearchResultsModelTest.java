@@ -0,0 +1,319 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.model;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.definition.SearchResultsDefinition;
+import info.magnolia.demo.travel.search.SearchResultPage;
+import info.magnolia.jcr.util.ContentMap;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.rendering.model.RenderingModel;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.templating.functions.TemplatingFunctions;
+import info.magnolia.test.mock.MockWebContext;
+import info.magnolia.test.mock.jcr.MockSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link SearchResultsModel}.
+ */
+public class SearchResultsModelTest {
+
+    private MockWebContext context;
+    private Node siteRoot;
+    private SearchResultsDefinition definition;
+    private TemplatingFunctions templatingFunctions;
+    private List<Node> hits;
+    private RowIterator rows;
+    private String executedTerms;
+    private List<String> executedWindows;
+
+    @Before
+    public void setUp() throws Exception {
+        final MockSession websiteSession = new MockSession(RepositoryConstants.WEBSITE);
+        siteRoot = websiteSession.getRootNode().addNode("travel", NodeTypes.Page.NAME);
+
+        // Two hits (components) on each page
+        hits = new ArrayList<>();
+        executedWindows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            final Node main = siteRoot.addNode("page-" + i, NodeTypes.Page.NAME).addNode("main", NodeTypes.Area.NAME);
+            hits.add(main.addNode("0", NodeTypes.Component.NAME));
+            hits.add(main.addNode("1", NodeTypes.Component.NAME));
+        }
+
+        context = new MockWebContext();
+        context.addSession(RepositoryConstants.WEBSITE, websiteSession);
+        MgnlContext.setInstance(context);
+
+        definition = new SearchResultsDefinition();
+        definition.setPageSize(10);
+        definition.setQueryTimeBudget(0);
+
+        templatingFunctions = mock(TemplatingFunctions.class);
+        when(templatingFunctions.siteRoot(siteRoot)).thenReturn(siteRoot);
+        when(templatingFunctions.wrapForI18n(any(Node.class))).thenAnswer(new Answer<Node>() {
+            @Override
+            public Node answer(InvocationOnMock invocation) throws Throwable {
+                return (Node) invocation.getArguments()[0];
+            }
+        });
+        when(templatingFunctions.asContentMap(any(Node.class))).thenAnswer(new Answer<ContentMap>() {
+            @Override
+            public ContentMap answer(InvocationOnMock invocation) throws Throwable {
+                return new ContentMap((Node) invocation.getArguments()[0]);
+            }
+        });
+        when(templatingFunctions.link(any(Node.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return ((Node) invocation.getArguments()[0]).getPath() + ".html";
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        MgnlContext.setInstance(null);
+    }
+
+    @Test
+    public void stopsReadingHitsOnceThePageIsFilled() throws Exception {
+        // GIVEN
+        setParameters("tours", "2");
+        rows = rows(-1);
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        assertThat(page.getResults().size(), is(10));
+        assertThat(page.getResults().get(0).getLink(), is("/travel/page-10.html"));
+        assertThat(page.getResults().get(9).getLink(), is("/travel/page-19.html"));
+        assertThat(page.hasNext(), is(true));
+        assertThat(page.isExact(), is(false));
+        assertThat(page.isPartial(), is(false));
+        assertThat(executedTerms, is("tours"));
+        assertThat(executedWindows, contains("0+21"));
+        verify(rows, times(41)).nextRow();
+    }
+
+    @Test
+    public void queriesNextHitsUntilThePageIsFilled() throws Exception {
+        // GIVEN
+        setParameters("tours", "2");
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        // 21 hits only cover 11 pages
+        assertThat(executedWindows, contains("0+21", "21+21"));
+        assertThat(page.getResults().size(), is(10));
+        assertThat(page.getResults().get(0).getLink(), is("/travel/page-10.html"));
+        assertThat(page.getResults().get(9).getLink(), is("/travel/page-19.html"));
+        assertThat(page.hasNext(), is(true));
+    }
+
+    @Test
+    public void stopsQueryingOnceHitsRunOut() throws Exception {
+        // GIVEN
+        setParameters("tours", "3");
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        assertThat(executedWindows, contains("0+31", "31+31"));
+        assertThat(page.getResults().size(), is(5));
+        assertThat(page.getTotal(), is(25));
+        assertThat(page.hasNext(), is(false));
+    }
+
+    @Test
+    public void estimatesTotalFromNumberOfHits() throws Exception {
+        // GIVEN
+        setParameters("tours", "1");
+        rows = rows(hits.size());
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        // 11 of 25 pages found in 21 of 50 hits
+        assertThat(page.getTotal(), is(26));
+        assertThat(page.getPageCount(), is(3));
+        assertThat(page.isExact(), is(false));
+    }
+
+    @Test
+    public void lastPageCountsExactTotal() throws Exception {
+        // GIVEN
+        setParameters("tours", "3");
+        rows = rows(hits.size());
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        assertThat(page.getResults().size(), is(5));
+        assertThat(page.getTotal(), is(25));
+        assertThat(page.isExact(), is(true));
+        assertThat(page.hasNext(), is(false));
+    }
+
+    @Test
+    public void exceededTimeBudgetReturnsResultsFoundSoFar() throws Exception {
+        // GIVEN
+        setParameters("tours", "1");
+        definition.setQueryTimeBudget(100);
+        final List<Row> slowRows = new ArrayList<>();
+        for (Node hit : hits) {
+            slowRows.add(row(hit));
+        }
+        rows = rows(hits.size());
+        doAnswer(new Answer<Row>() {
+            private int read;
+
+            @Override
+            public Row answer(InvocationOnMock invocation) throws Throwable {
+                if (read == 5) {
+                    Thread.sleep(200);
+                }
+                return slowRows.get(read++);
+            }
+        }).when(rows).nextRow();
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        assertThat(page.getResults().size(), is(3));
+        assertThat(page.isPartial(), is(true));
+        assertThat(page.isExact(), is(false));
+        verify(rows, times(6)).nextRow();
+    }
+
+    @Test
+    public void queryWithoutWordsIsNotExecuted() throws Exception {
+        // GIVEN
+        setParameters(" \"-*", "1");
+
+        // WHEN
+        final SearchResultPage page = createModel().getPageResults();
+
+        // THEN
+        assertThat(page.getResults().isEmpty(), is(true));
+        assertThat(page.getTotal(), is(0));
+        assertThat(executedTerms, is(nullValue()));
+    }
+
+    private SearchResultsModel createModel() {
+        return new SearchResultsModel(siteRoot, definition, mock(RenderingModel.class), templatingFunctions) {
+            @Override
+            protected RowIterator executeQuery(String workspace, String path, String terms, long offset, long limit) throws RepositoryException {
+                executedTerms = terms;
+                executedWindows.add(offset + "+" + limit);
+                if (rows != null) {
+                    return rows;
+                }
+                // Honour the window like the repository does
+                final List<Node> window = hits.subList((int) Math.min(offset, hits.size()), (int) Math.min(offset + limit, hits.size()));
+                return rows(window, window.size());
+            }
+        };
+    }
+
+    private void setParameters(String query, String page) {
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(SearchResultsModel.QUERY_PARAMETER, query);
+        parameters.put(SearchResultsModel.PAGE_QUERY_PARAMETER, page);
+        context.setParameters(parameters);
+    }
+
+    private RowIterator rows(long size) throws RepositoryException {
+        return rows(hits, size);
+    }
+
+    private RowIterator rows(List<Node> hitNodes, long size) throws RepositoryException {
+        final List<Row> hitRows = new ArrayList<>();
+        for (Node hit : hitNodes) {
+            hitRows.add(row(hit));
+        }
+        final Iterator<Row> iterator = hitRows.iterator();
+        final RowIterator rows = mock(RowIterator.class);
+        when(rows.getSize()).thenReturn(size);
+        when(rows.hasNext()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return iterator.hasNext();
+            }
+        });
+        when(rows.nextRow()).thenAnswer(new Answer<Row>() {
+            @Override
+            public Row answer(InvocationOnMock invocation) throws Throwable {
+                return iterator.next();
+            }
+        });
+        return rows;
+    }
+
+    private Row row(Node node) throws RepositoryException {
+        final Row row = mock(Row.class);
+        when(row.getNode(SearchResultsModel.SELECTOR)).thenReturn(node);
+        return row;
+    }
+
+}
@@ -0,0 +1,148 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.navigation;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.cms.i18n.I18nContentSupport;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.rendering.template.registry.TemplateDefinitionRegistry;
+import info.magnolia.rendering.template.type.TemplateTypeHelper;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.templating.functions.TemplatingFunctions;
+import info.magnolia.test.ComponentsTestUtil;
+import info.magnolia.test.RepositoryTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link SiteLinkResolver}.
+ */
+public class SiteLinkResolverTest extends RepositoryTestCase {
+
+    private SiteLinkCache siteLinkCache;
+    private SiteLinkResolver siteLinkResolver;
+    private Node siteRoot, aboutPage;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        I18nContentSupport i18nContentSupport = mock(I18nContentSupport.class);
+        when(i18nContentSupport.toI18NURI(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return (String) invocation.getArguments()[0];
+            }
+        });
+        ComponentsTestUtil.setInstance(I18nContentSupport.class, i18nContentSupport);
+
+        TemplateDefinitionRegistry registry = mock(TemplateDefinitionRegistry.class);
+        TemplatingFunctions templatingFunctions = new TemplatingFunctions(null, new TemplateTypeHelper(registry), null);
+        siteLinkCache = new SiteLinkCache();
+        siteLinkResolver = new SiteLinkResolver(templatingFunctions, registry, i18nContentSupport, siteLinkCache);
+
+        Session session = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE);
+        siteRoot = session.getRootNode().addNode("siteRoot", NodeTypes.Page.NAME);
+        aboutPage = siteRoot.addNode("about", NodeTypes.Page.NAME);
+        session.save();
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        siteLinkCache.stop();
+        super.tearDown();
+    }
+
+    @Test
+    public void pagesAreSearchedBelowSiteRootOfSystemContext() throws RepositoryException {
+        // GIVEN
+        siteLinkCache.start();
+        final List<Boolean> searchedInWebContext = new ArrayList<>();
+        final List<Session> searchedSessions = new ArrayList<>();
+
+        // WHEN
+        String link = siteLinkResolver.getLink(siteRoot, "about", new SiteLinkResolver.PageFinder() {
+            @Override
+            public Node findPage(Node siteRoot) throws RepositoryException {
+                searchedInWebContext.add(MgnlContext.isWebContext());
+                searchedSessions.add(siteRoot.getSession());
+                return siteRoot.getNode("about");
+            }
+        });
+
+        // THEN
+        assertThat(link, equalTo(aboutPage.getPath()));
+        assertThat(searchedInWebContext, contains(false));
+        assertThat(searchedSessions, contains(sameInstance(MgnlContext.getSystemContext().getJCRSession(RepositoryConstants.WEBSITE))));
+    }
+
+    @Test
+    public void foundPagesAreCachedPerSiteRoot() throws RepositoryException {
+        // GIVEN
+        siteLinkCache.start();
+        final SiteLinkResolver.PageFinder pageFinder = mock(SiteLinkResolver.PageFinder.class);
+        when(pageFinder.findPage(any(Node.class))).thenAnswer(new Answer<Node>() {
+            @Override
+            public Node answer(InvocationOnMock invocation) throws Throwable {
+                return ((Node) invocation.getArguments()[0]).getNode("about");
+            }
+        });
+
+        // WHEN
+        siteLinkResolver.getLink(siteRoot, "about", pageFinder);
+        String link = siteLinkResolver.getLink(siteRoot, "about", pageFinder);
+
+        // THEN
+        assertThat(link, equalTo(aboutPage.getPath()));
+        verify(pageFinder, times(1)).findPage(any(Node.class));
+    }
+}
@@ -52,6 +52,7 @@ import info.magnolia.cms.security.operations.VoterBasedConfiguredAccessDefinitio
 import info.magnolia.cms.util.QueryUtil;
 import info.magnolia.context.MgnlContext;
 import info.magnolia.dam.jcr.DamConstants;
+import info.magnolia.demo.travel.trace.AccessTraceFilter;
 import info.magnolia.jcr.util.NodeTypes;
 import info.magnolia.module.InstallContext;
 import info.magnolia.module.ModuleVersionHandler;
@@ -134,6 +135,7 @@ public class TravelDemoModuleVersionHandlerTest extends ModuleVersionHandlerTest
         setupConfigNode("/modules/ui-admincentral/virtualURIMapping/default");
         setupConfigNode("/modules/site/config");
         setupConfigProperty("/server", "admin", "true");
+        setupConfigNode("/server/filters/context");
         setupConfigNode("/server/filters/securityCallback/clientCallbacks/form");
     }
 
@@ -261,6 +263,19 @@ public class TravelDemoModuleVersionHandlerTest extends ModuleVersionHandlerTest
         this.assertNoMessages(ctx);
     }
 
+    @Test
+    public void updateFrom111InstallsAccessTraceFilterAfterContextFilter() throws Exception {
+        // WHEN
+        final InstallContext ctx = executeUpdatesAsIfTheCurrentlyInstalledVersionWas(Version.parseVersion("1.1.1"));
+
+        // THEN
+        assertThat(session.getNode("/server/filters/accessTrace"), hasProperty("class", AccessTraceFilter.class.getName()));
+        final NodeIterator filters = session.getNode("/server/filters").getNodes();
+        assertThat(filters.nextNode().getName(), equalTo("context"));
+        assertThat(filters.nextNode().getName(), equalTo("accessTrace"));
+        this.assertNoMessages(ctx);
+    }
+
     @Test
     public void testCleanInstall() throws Exception {
         // GIVEN
@@ -0,0 +1,105 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.templating;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.dam.api.Asset;
+import info.magnolia.dam.api.ItemKey;
+import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DetachedAsset}.
+ */
+public class DetachedAssetTest {
+
+    private static final String ASSET_KEY = "jcr:asset-1";
+
+    private DamTemplatingFunctions damTemplatingFunctions;
+    private Asset asset;
+    private Asset detached;
+
+    @Before
+    public void setUp() throws Exception {
+        damTemplatingFunctions = mock(DamTemplatingFunctions.class);
+        asset = mock(Asset.class);
+        when(asset.getItemKey()).thenReturn(new ItemKey("jcr", "asset-1"));
+        detached = DetachedAsset.detach(asset, damTemplatingFunctions);
+    }
+
+    @Test
+    public void plainValuesAreReadOnceFromAssetOfCurrentContext() throws Exception {
+        // GIVEN
+        final Asset current = mock(Asset.class);
+        when(current.getCaption()).thenReturn("A caption");
+        when(damTemplatingFunctions.getAsset(ASSET_KEY)).thenReturn(current);
+
+        // WHEN
+        detached.getCaption();
+        final String caption = detached.getCaption();
+
+        // THEN
+        assertThat(caption, is("A caption"));
+        assertThat(detached.getItemKey().asString(), is(ASSET_KEY));
+        verify(damTemplatingFunctions, times(1)).getAsset(ASSET_KEY);
+        verify(asset, never()).getCaption();
+    }
+
+    @Test
+    public void detachedAssetIsAttachedToCurrentContext() throws Exception {
+        // GIVEN
+        final Asset current = mock(Asset.class);
+        when(damTemplatingFunctions.getAsset(ASSET_KEY)).thenReturn(current);
+
+        // WHEN
+        final Asset attached = DetachedAsset.attach(detached);
+
+        // THEN
+        assertThat(attached, sameInstance(current));
+        assertThat(DetachedAsset.attach(asset), sameInstance(asset));
+        assertThat(detached.equals(asset), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removedAssetCanNoLongerBeRead() throws Exception {
+        // WHEN
+        detached.getCaption();
+    }
+
+}
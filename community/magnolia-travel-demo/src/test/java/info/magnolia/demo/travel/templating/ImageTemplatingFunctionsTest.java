@@ -0,0 +1,123 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.templating;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.dam.api.Asset;
+import info.magnolia.dam.api.AssetRendition;
+import info.magnolia.dam.api.ItemKey;
+import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ImageTemplatingFunctions}.
+ */
+public class ImageTemplatingFunctionsTest {
+
+    private DamTemplatingFunctions damTemplatingFunctions;
+    private Asset asset;
+    private ImageTemplatingFunctions imageTemplatingFunctions;
+
+    @Before
+    public void setUp() throws Exception {
+        damTemplatingFunctions = mock(DamTemplatingFunctions.class);
+        asset = mock(Asset.class);
+        when(asset.getItemKey()).thenReturn(new ItemKey("jcr", "asset-1"));
+        imageTemplatingFunctions = new ImageTemplatingFunctions(damTemplatingFunctions);
+    }
+
+    @Test
+    public void responsiveImageJoinsAvailableRenditions() throws Exception {
+        // GIVEN
+        mockRendition("480x360");
+        mockRendition("960x720");
+        mockRendition("1600x1200");
+
+        // WHEN
+        final ResponsiveImage image = imageTemplatingFunctions.getResponsiveImage(asset, true);
+
+        // THEN
+        assertThat(image.getSrcset(), is("/480x360 480w, /960x720 960w, /1600x1200 1600w"));
+        assertThat(image.getFallbackLink(), is("/960x720"));
+    }
+
+    @Test
+    public void responsiveImageWithoutAspectRatioUsesWidthRenditions() throws Exception {
+        // GIVEN
+        mockRendition("480");
+        mockRendition("960");
+
+        // WHEN
+        final ResponsiveImage image = imageTemplatingFunctions.getResponsiveImage(asset, false);
+
+        // THEN
+        assertThat(image.getSrcset(), is("/480 480w, /960 960w"));
+        assertThat(image.getFallbackLink(), is("/960"));
+    }
+
+    @Test
+    public void missingRenditionResolvesToEmptyLink() throws Exception {
+        // WHEN
+        final String link = imageTemplatingFunctions.getRenditionLink(asset, "960");
+
+        // THEN
+        assertThat(link, is(""));
+    }
+
+    @Test
+    public void assetsAreLookedUpByKeyUnlessStarted() throws Exception {
+        // GIVEN
+        when(damTemplatingFunctions.getAsset("jcr:asset-1")).thenReturn(asset);
+
+        // WHEN
+        imageTemplatingFunctions.getAsset("jcr:asset-1");
+        final Asset looked = imageTemplatingFunctions.getAsset("jcr:asset-1");
+
+        // THEN
+        assertThat(looked, sameInstance(asset));
+        verify(damTemplatingFunctions, times(2)).getAsset("jcr:asset-1");
+    }
+
+    private void mockRendition(String renditionName) {
+        final AssetRendition rendition = mock(AssetRendition.class);
+        when(rendition.getLink()).thenReturn("/" + renditionName);
+        when(damTemplatingFunctions.getRendition(asset, renditionName)).thenReturn(rendition);
+    }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.templating;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RenditionLinkCache}.
+ */
+public class RenditionLinkCacheTest {
+
+    @Test
+    public void keepsLinksPerAssetAndRendition() throws Exception {
+        // GIVEN
+        final RenditionLinkCache cache = new RenditionLinkCache();
+
+        // WHEN
+        cache.put("jcr:asset-1", "960", "/dam/jcr:asset-1/image.jpg/960");
+        cache.put("jcr:asset-1", "1600", "");
+
+        // THEN
+        assertThat(cache.get("jcr:asset-1", "960"), is("/dam/jcr:asset-1/image.jpg/960"));
+        assertThat(cache.get("jcr:asset-1", "1600"), is(""));
+        assertThat(cache.get("jcr:asset-1", "480"), nullValue());
+        assertThat(cache.get("jcr:asset-2", "960"), nullValue());
+    }
+
+    @Test
+    public void invalidateDropsAllLinks() throws Exception {
+        // GIVEN
+        final RenditionLinkCache cache = new RenditionLinkCache();
+        cache.put("jcr:asset-1", "960", "/dam/jcr:asset-1/image.jpg/960");
+
+        // WHEN
+        cache.invalidate();
+
+        // THEN
+        assertThat(cache.get("jcr:asset-1", "960"), nullValue());
+    }
+
+}
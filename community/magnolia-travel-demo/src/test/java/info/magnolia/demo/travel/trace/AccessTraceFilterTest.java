@@ -0,0 +1,110 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.trace;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.test.mock.MockWebContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link AccessTraceFilter}.
+ */
+public class AccessTraceFilterTest {
+
+    private final List<AccessTrace> traces = new ArrayList<>();
+    private FilterChain chain;
+
+    @Before
+    public void setUp() throws Exception {
+        MgnlContext.setInstance(new MockWebContext());
+        chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, "demo-about");
+                traces.add(AccessTrace.getCurrent());
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AccessTrace.setEnabled(false);
+        MgnlContext.setInstance(null);
+    }
+
+    @Test
+    public void tracesRequestUntilItIsHandled() throws Exception {
+        // GIVEN
+        AccessTrace.setEnabled(true);
+
+        // WHEN
+        new AccessTraceFilter().doFilter(mock(HttpServletRequest.class), mock(HttpServletResponse.class), chain);
+
+        // THEN
+        assertThat(traces.get(0).getAccesses().size(), is(1));
+        assertThat(AccessTrace.getCurrent(), nullValue());
+    }
+
+    @Test
+    public void passesRequestThroughUnlessTracingIsEnabled() throws Exception {
+        // WHEN
+        new AccessTraceFilter().doFilter(mock(HttpServletRequest.class), mock(HttpServletResponse.class), chain);
+
+        // THEN
+        verify(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        assertThat(traces.get(0), nullValue());
+    }
+}
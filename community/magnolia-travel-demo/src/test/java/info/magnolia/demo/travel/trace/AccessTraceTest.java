@@ -0,0 +1,144 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.trace;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import info.magnolia.cms.core.AggregationState;
+import info.magnolia.context.Context;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.test.mock.MockWebContext;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AccessTrace}.
+ */
+public class AccessTraceTest {
+
+    private MockWebContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new MockWebContext();
+        context.setAggregationState(new AggregationState());
+        MgnlContext.setInstance(context);
+        MgnlContext.setAttribute(AccessTrace.ATTRIBUTE, new AccessTrace("/travel.html"), Context.LOCAL_SCOPE);
+        AccessTrace.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AccessTrace.setEnabled(false);
+        MgnlContext.setInstance(null);
+    }
+
+    @Test
+    public void flagsRepeatedAccesses() throws Exception {
+        // WHEN
+        AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, "demo-about");
+        AccessTrace.record(AccessTrace.Kind.NODE, "tours", "vietnam");
+        AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, "demo-about");
+
+        // THEN
+        final AccessTrace trace = AccessTrace.getCurrent();
+        assertThat(trace.getAccesses().size(), is(3));
+        assertThat(trace.getRepeated().get("QUERY website:demo-about"), is(2));
+        assertThat(trace.getRepeated().containsKey("NODE tours:vietnam"), is(false));
+        assertThat(trace.getReport(), containsString("repeated 2x: QUERY website:demo-about"));
+    }
+
+    @Test
+    public void doesNotTraceRequestsNotStartedByFilter() throws Exception {
+        // GIVEN
+        MgnlContext.removeAttribute(AccessTrace.ATTRIBUTE, Context.LOCAL_SCOPE);
+
+        // WHEN
+        AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, "demo-about");
+
+        // THEN
+        assertThat(AccessTrace.getCurrent(), nullValue());
+    }
+
+    @Test
+    public void tracesAccessesOfSeveralThreads() throws Exception {
+        // GIVEN
+        final int threads = 8;
+        final int accesses = 1000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    MgnlContext.setInstance(context);
+                    try {
+                        for (int j = 0; j < accesses; j++) {
+                            AccessTrace.record(AccessTrace.Kind.ASSET, "dam", "jcr:" + j);
+                        }
+                    } finally {
+                        MgnlContext.setInstance(null);
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        // WHEN
+        done.await();
+
+        // THEN
+        final AccessTrace trace = AccessTrace.getCurrent();
+        assertThat(trace.getAccesses().size(), is(threads * accesses));
+        assertThat(trace.getRepeated().get("ASSET dam:jcr:0"), is(threads));
+    }
+
+    @Test
+    public void doesNotTraceUnlessEnabled() throws Exception {
+        // GIVEN
+        AccessTrace.setEnabled(false);
+
+        // WHEN
+        AccessTrace.record(AccessTrace.Kind.ASSET, "dam", "jcr:cafebabe");
+
+        // THEN
+        assertThat(AccessTrace.getCurrent().getAccesses().isEmpty(), is(true));
+    }
+
+}
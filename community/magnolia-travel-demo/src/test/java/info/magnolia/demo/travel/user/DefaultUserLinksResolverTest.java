@@ -38,11 +38,17 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
+import info.magnolia.cms.core.AggregationState;
 import info.magnolia.cms.i18n.I18nContentSupport;
 import info.magnolia.cms.security.LogoutFilter;
 import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.definition.NavigationAreaDefinition;
+import info.magnolia.demo.travel.navigation.SiteLinkCache;
+import info.magnolia.demo.travel.navigation.SiteLinkResolver;
 import info.magnolia.jcr.util.NodeTypes;
 import info.magnolia.objectfactory.guice.GuiceUtils;
+import info.magnolia.rendering.template.AreaDefinition;
+import info.magnolia.rendering.template.TemplateDefinition;
 import info.magnolia.rendering.template.configured.ConfiguredTemplateDefinition;
 import info.magnolia.rendering.template.registry.TemplateDefinitionRegistry;
 import info.magnolia.rendering.template.type.DefaultTemplateTypes;
@@ -52,10 +58,14 @@ import info.magnolia.templating.functions.TemplatingFunctions;
 import info.magnolia.test.ComponentsTestUtil;
 import info.magnolia.test.RepositoryTestCase;
 
+import java.util.Collections;
+
+import javax.inject.Provider;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -67,12 +77,26 @@ import org.mockito.stubbing.Answer;
 public class DefaultUserLinksResolverTest extends RepositoryTestCase {
 
     private DefaultUserLinksResolver resolver;
+    private TemplatingFunctions templatingFunctions;
+    private SiteLinkCache siteLinkCache;
+    private SiteLinkResolver siteLinkResolver;
+    private TemplateDefinitionRegistry registry;
     private Node siteRoot, loginPage, profilePage;
 
     @Before
     public void setUp() throws Exception {
         super.setUp();
-        TemplateDefinitionRegistry registry = mock(TemplateDefinitionRegistry.class);
+        I18nContentSupport i18nContentSupport = mock(I18nContentSupport.class);
+        when(i18nContentSupport.toI18NURI(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                Object[] args = invocation.getArguments();
+                return (String) args[0];
+            }
+        });
+        ComponentsTestUtil.setInstance(I18nContentSupport.class, i18nContentSupport);
+
+        registry = mock(TemplateDefinitionRegistry.class);
 
         ConfiguredTemplateDefinition rootPageDefinition = new ConfiguredTemplateDefinition(null);
         rootPageDefinition.setType(DefaultTemplateTypes.SITE_ROOT);
@@ -86,10 +110,14 @@ public class DefaultUserLinksResolverTest extends RepositoryTestCase {
         profilePageDefinition.setId("profilePageDefinition");
         when(registry.getTemplateDefinition(profilePageDefinition.getId())).thenReturn(profilePageDefinition);
 
+        templatingFunctions = spy(new TemplatingFunctions(null, new TemplateTypeHelper(registry), null));
+        siteLinkCache = new SiteLinkCache();
+        siteLinkResolver = new SiteLinkResolver(templatingFunctions, registry, i18nContentSupport, siteLinkCache);
         resolver = new DefaultUserLinksResolver(
                 GuiceUtils.providerForInstance(MgnlContext.getWebContext()),
                 GuiceUtils.providerForInstance(MgnlContext.getAggregationState()),
-                new TemplatingFunctions(null, new TemplateTypeHelper(registry), null)
+                templatingFunctions,
+                siteLinkResolver
         );
         resolver.setLoginPageTemplateId(profilePageDefinition.getId());
         resolver.setRegistrationPageTemplateId("nonExistingTemplate");
@@ -105,16 +133,13 @@ public class DefaultUserLinksResolverTest extends RepositoryTestCase {
         NodeTypes.Renderable.set(profilePage, resolver.getLoginPageTemplateId());
 
         session.save();
+    }
 
-        I18nContentSupport i18nContentSupport = mock(I18nContentSupport.class);
-        when(i18nContentSupport.toI18NURI(anyString())).thenAnswer(new Answer<String>() {
-            @Override
-            public String answer(InvocationOnMock invocation) throws Throwable {
-                Object[] args = invocation.getArguments();
-                return (String) args[0];
-            }
-        });
-        ComponentsTestUtil.setInstance(I18nContentSupport.class, i18nContentSupport);
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        siteLinkCache.stop();
+        super.tearDown();
     }
 
 
@@ -178,6 +203,70 @@ public class DefaultUserLinksResolverTest extends RepositoryTestCase {
         assertNull(link);
     }
 
+    @Test
+    public void pageLinksAreResolvedOncePerSiteRoot() throws RepositoryException {
+        // GIVEN
+        siteLinkCache.start();
+        MgnlContext.getAggregationState().setMainContentNode(loginPage);
+
+        // WHEN
+        boolean useForCurrentPage = resolver.useForCurrentPage();
+        String loginLink = resolver.getLoginPageLink();
+        String logoutLink = resolver.getLogoutLink();
+
+        // THEN
+        assertTrue(useForCurrentPage);
+        assertThat(loginLink, equalTo(loginPage.getPath()));
+        assertThat(logoutLink, equalTo(loginPage.getPath() + "?" + LogoutFilter.PARAMETER_LOGOUT + "=true"));
+        verify(templatingFunctions, times(1)).contentListByTemplateIds(any(Node.class), anySetOf(String.class), anyInt(), (String) any(), (String) any());
+    }
+
+    @Test
+    public void prefetchedPageLinksNeedNoFurtherQueries() throws RepositoryException {
+        // GIVEN
+        NavigationAreaDefinition navigationAreaDefinition = new NavigationAreaDefinition();
+        navigationAreaDefinition.setUserLinksResolvers(Collections.<UserLinksResolver>singletonList(resolver));
+        ConfiguredTemplateDefinition pageDefinition = new ConfiguredTemplateDefinition(null);
+        pageDefinition.setAreas(Collections.<String, AreaDefinition>singletonMap("navigation", navigationAreaDefinition));
+        when(registry.getAllDefinitions()).thenReturn(Collections.<TemplateDefinition>singletonList(pageDefinition));
+        siteLinkCache.start();
+        siteLinkResolver.prefetch();
+        MgnlContext.getAggregationState().setMainContentNode(siteRoot);
+
+        // WHEN
+        String loginLink = resolver.getLoginPageLink();
+        String registrationLink = resolver.getRegistrationPageLink();
+
+        // THEN
+        assertThat(loginLink, equalTo(loginPage.getPath()));
+        assertNull(registrationLink);
+        verify(templatingFunctions, times(1)).contentListByTemplateIds(any(Node.class), anySetOf(String.class), anyInt(), (String) any(), (String) any());
+    }
+
+    @Test
+    public void pageLinksAreSearchedWithoutAggregationStateOutsideOfWebContext() throws RepositoryException {
+        // GIVEN
+        final Provider<AggregationState> aggregationStateProvider = new Provider<AggregationState>() {
+            @Override
+            public AggregationState get() {
+                if (!MgnlContext.isWebContext()) {
+                    throw new IllegalStateException("No aggregation state outside of a web context.");
+                }
+                return MgnlContext.getAggregationState();
+            }
+        };
+        final DefaultUserLinksResolver requestScopedResolver = new DefaultUserLinksResolver(GuiceUtils.providerForInstance(MgnlContext.getWebContext()), aggregationStateProvider, templatingFunctions, siteLinkResolver);
+        requestScopedResolver.setLoginPageTemplateId(resolver.getLoginPageTemplateId());
+        siteLinkCache.start();
+        MgnlContext.getAggregationState().setMainContentNode(siteRoot);
+
+        // WHEN
+        String loginLink = requestScopedResolver.getLoginPageLink();
+
+        // THEN
+        assertThat(loginLink, equalTo(loginPage.getPath()));
+    }
+
     @Test
     public void getUsernameForAnonymousUser() throws RepositoryException {
         // GIVEN
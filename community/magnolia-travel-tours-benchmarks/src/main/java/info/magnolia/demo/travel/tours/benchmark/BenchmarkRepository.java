@@ -0,0 +1,165 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.benchmark;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.demo.travel.tours.service.Category;
+import info.magnolia.demo.travel.tours.service.Tour;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.jcr.util.NodeUtil;
+import info.magnolia.module.categorization.CategorizationModule;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.test.RepositoryTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.nodetype.NodeTypeManager;
+import javax.jcr.nodetype.NodeTypeTemplate;
+
+/**
+ * In-memory repository for the benchmarks, started the same way as for a {@link RepositoryTestCase} and seeded with
+ * generated tours and categories.
+ */
+public class BenchmarkRepository extends RepositoryTestCase {
+
+    static final String CATEGORY_NODE_TYPE = "mgnl:category";
+    static final String SITE_ROOT = "/travel";
+    static final String PROPERTY_NAME_FEATURED = "isFeatured";
+
+    private static final int TOUR_TYPES_PER_TOUR = 2;
+    private static final int BATCH_SIZE = 500;
+
+    private final List<String> tourIdentifiers = new ArrayList<>();
+    private final List<String> tourNames = new ArrayList<>();
+    private final List<String> categoryIdentifiers = new ArrayList<>();
+    private Node siteRoot;
+
+    @Override
+    public String getRepositoryConfigFileName() {
+        return "info/magnolia/demo/travel/tours/benchmark/benchmark-repositories.xml";
+    }
+
+    public void start() throws Exception {
+        setUp();
+    }
+
+    public void stop() throws Exception {
+        tearDown();
+    }
+
+    /**
+     * Creates <code>categories</code> categories and <code>tours</code> tours, each tour referencing two tour types and
+     * one destination; every fifth tour is featured.
+     */
+    public void seed(int tours, int categories) throws RepositoryException {
+        final Session categorySession = MgnlContext.getJCRSession(CategorizationModule.CATEGORIZATION_WORKSPACE);
+        registerCategoryNodeType(categorySession);
+
+        final Node categoryRoot = NodeUtil.createPath(categorySession.getRootNode(), "/tour-types", NodeTypes.Folder.NAME);
+        for (int i = 0; i < categories; i++) {
+            final Node category = categoryRoot.addNode("category-" + i, CATEGORY_NODE_TYPE);
+            category.setProperty(Category.PROPERTY_NAME_DISPLAY_NAME, "Category " + i);
+            category.setProperty(Category.PROPERTY_NAME_DESCRIPTION, "Description of category " + i);
+            category.setProperty(Category.PROPERTY_NAME_IMAGE, "jcr:category-image-" + i);
+            categoryIdentifiers.add(category.getIdentifier());
+        }
+        categorySession.save();
+
+        final Session websiteSession = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE);
+        siteRoot = NodeUtil.createPath(websiteSession.getRootNode(), SITE_ROOT, NodeTypes.Page.NAME);
+        websiteSession.save();
+
+        final Session tourSession = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
+        final Node tourRoot = NodeUtil.createPath(tourSession.getRootNode(), "/magnolia-travels", NodeTypes.Folder.NAME);
+        for (int i = 0; i < tours; i++) {
+            final Node tour = tourRoot.addNode("tour-" + i, NodeTypes.Content.NAME);
+            tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "Tour " + i);
+            tour.setProperty(Tour.PROPERTY_NAME_DESCRIPTION, "Description of tour " + i);
+            tour.setProperty(Tour.PROPERTY_NAME_BODY, String.format("<p>Body of tour %d, see <a href=\"${link:{uuid:{%s},repository:{website},path:{%s}}}\">travel</a>.</p>", i, siteRoot.getIdentifier(), SITE_ROOT));
+            tour.setProperty(Tour.PROPERTY_NAME_AUTHOR, "Author " + i % 10);
+            tour.setProperty(Tour.PROPERTY_NAME_DURATION, String.valueOf(i % 14 + 1));
+            tour.setProperty(Tour.PROPERTY_NAME_LOCATION, "Location " + i % 50);
+            tour.setProperty(Tour.PROPERTY_NAME_IMAGE, "jcr:tour-image-" + i);
+            tour.setProperty(PROPERTY_NAME_FEATURED, i % 5 == 0);
+
+            if (categories > 0) {
+                final String[] tourTypes = new String[Math.min(TOUR_TYPES_PER_TOUR, categories)];
+                for (int j = 0; j < tourTypes.length; j++) {
+                    tourTypes[j] = categoryIdentifiers.get((i + j) % categories);
+                }
+                tour.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, tourTypes);
+                tour.setProperty(Tour.PROPERTY_NAME_DESTINATION, new String[]{categoryIdentifiers.get((i * 7) % categories)});
+            }
+
+            tourIdentifiers.add(tour.getIdentifier());
+            tourNames.add(tour.getName());
+            if (i % BATCH_SIZE == 0) {
+                tourSession.save();
+            }
+        }
+        tourSession.save();
+    }
+
+    private void registerCategoryNodeType(Session session) throws RepositoryException {
+        final NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
+        if (!nodeTypeManager.hasNodeType(CATEGORY_NODE_TYPE)) {
+            final NodeTypeTemplate template = nodeTypeManager.createNodeTypeTemplate();
+            template.setName(CATEGORY_NODE_TYPE);
+            template.setDeclaredSuperTypeNames(new String[]{NodeTypes.Content.NAME});
+            template.setOrderableChildNodes(true);
+            nodeTypeManager.registerNodeType(template, true);
+        }
+    }
+
+    public List<String> getTourIdentifiers() {
+        return tourIdentifiers;
+    }
+
+    public List<String> getTourNames() {
+        return tourNames;
+    }
+
+    public List<String> getCategoryIdentifiers() {
+        return categoryIdentifiers;
+    }
+
+    public Node getSiteRoot() {
+        return siteRoot;
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.benchmark;
+
+import static org.mockito.Mockito.*;
+
+import info.magnolia.cms.core.AggregationState;
+import info.magnolia.cms.i18n.DefaultI18nContentSupport;
+import info.magnolia.cms.i18n.I18nContentSupport;
+import info.magnolia.context.Context;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.dam.api.Asset;
+import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+import info.magnolia.demo.travel.templating.ImageTemplatingFunctions;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.demo.travel.tours.model.CarouselModel;
+import info.magnolia.demo.travel.tours.model.RelatedToursModel;
+import info.magnolia.demo.travel.tours.model.definition.TourCategoryTemplateDefinition;
+import info.magnolia.demo.travel.tours.service.Category;
+import info.magnolia.demo.travel.tours.service.Tour;
+import info.magnolia.demo.travel.tours.service.TourPage;
+import info.magnolia.demo.travel.tours.service.TourServices;
+import info.magnolia.link.LinkTransformerManager;
+import info.magnolia.module.categorization.functions.CategorizationTemplatingFunctions;
+import info.magnolia.objectfactory.Components;
+import info.magnolia.rendering.model.RenderingModel;
+import info.magnolia.rendering.template.RenderableDefinition;
+import info.magnolia.rendering.template.registry.TemplateDefinitionRegistry;
+import info.magnolia.rendering.template.type.TemplateTypeHelper;
+import info.magnolia.repository.RepositoryConstants;
+import info.magnolia.templating.functions.TemplatingFunctions;
+import info.magnolia.test.ComponentsTestUtil;
+import info.magnolia.test.mock.MockWebContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of {@link TourServices} and of the tour rendering models on a seeded in-memory repository.
+ *
+ * <p>DAM and categorization functions are mocked, as in <code>TourServicesRepositoryTest</code>: assets resolve to a
+ * shared mock and no category overview page is found. The {@link info.magnolia.context.MgnlContext} is thread bound,
+ * hence the thread scoped state and a single benchmark thread.</p>
+ *
+ * <p>Mockito 1 defines its proxy classes reflectively, which newer JDKs only allow with <code>java.lang</code> opened;
+ * older ones ignore the option.</p>
+ */
+@State(Scope.Thread)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TourServicesBenchmark {
+
+    private static final int CAROUSEL_SIZE = 5;
+
+    @Param({"1000", "10000"})
+    private int tours;
+
+    @Param({"20", "200"})
+    private int categories;
+
+    private BenchmarkRepository repository;
+    private TourServices tourServices;
+    private Map<String, String> parameters;
+    private CarouselModel<RenderableDefinition> carouselModel;
+    private RelatedToursModel<TourCategoryTemplateDefinition> relatedToursModel;
+    private Node tourNode;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        repository = new BenchmarkRepository();
+        repository.start();
+        repository.seed(tours, categories);
+
+        ComponentsTestUtil.setImplementation(I18nContentSupport.class, DefaultI18nContentSupport.class);
+
+        final TemplateTypeHelper templateTypeHelper = new TemplateTypeHelper(mock(TemplateDefinitionRegistry.class));
+        final Provider<AggregationState> aggregationStateProvider = new Provider<AggregationState>() {
+            @Override
+            public AggregationState get() {
+                return MgnlContext.getAggregationState();
+            }
+        };
+        final Provider<I18nContentSupport> i18nContentSupportProvider = new Provider<I18nContentSupport>() {
+            @Override
+            public I18nContentSupport get() {
+                return Components.getComponent(I18nContentSupport.class);
+            }
+        };
+        final TemplatingFunctions templatingFunctions = new TemplatingFunctions(aggregationStateProvider, templateTypeHelper, i18nContentSupportProvider);
+        final DamTemplatingFunctions damTemplatingFunctions = mock(DamTemplatingFunctions.class);
+        when(damTemplatingFunctions.getAsset(anyString())).thenReturn(mock(Asset.class));
+
+        tourServices = new TourServices(new ToursModule(), templateTypeHelper, templatingFunctions, mock(CategorizationTemplatingFunctions.class), new ImageTemplatingFunctions(damTemplatingFunctions), new LinkTransformerManager());
+
+        parameters = new HashMap<>();
+        ((MockWebContext) MgnlContext.getInstance()).setParameters(parameters);
+
+        final Session websiteSession = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE);
+        final Node carousel = repository.getSiteRoot().addNode("carousel", "mgnl:component");
+        final List<String> carouselTours = new ArrayList<>();
+        for (int i = 0; i < CAROUSEL_SIZE; i++) {
+            carouselTours.add(repository.getTourIdentifiers().get(i * tours / CAROUSEL_SIZE));
+        }
+        carousel.setProperty(CarouselModel.PROPERTY_NAME_TOURS, carouselTours.toArray(new String[carouselTours.size()]));
+        websiteSession.save();
+        carouselModel = new CarouselModel<>(carousel, mock(RenderableDefinition.class), mock(RenderingModel.class), tourServices);
+
+        final TourCategoryTemplateDefinition relatedToursDefinition = new TourCategoryTemplateDefinition();
+        relatedToursDefinition.setCategory(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY);
+        relatedToursModel = new RelatedToursModel<>(repository.getSiteRoot(), relatedToursDefinition, mock(RenderingModel.class), tourServices);
+
+        tourNode = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME).getNodeByIdentifier(repository.getTourIdentifiers().get(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repository.stop();
+    }
+
+    /**
+     * Simulates a new request: request scoped caches are dropped and the next tour is requested.
+     */
+    @Setup(Level.Invocation)
+    public void nextRequest() {
+        ((MockWebContext) MgnlContext.getInstance()).removeAttribute(TourServices.class.getName() + ".requestCache", Context.LOCAL_SCOPE);
+        position = (position + 1) % tours;
+        parameters.put(TourServices.TOUR_QUERY_PARAMETER, repository.getTourNames().get(position));
+        ((MockWebContext) MgnlContext.getInstance()).setParameters(parameters);
+    }
+
+    /**
+     * Looks up a tour by its slug, i.e. <code>getContentNodeByName</code>.
+     */
+    @Benchmark
+    public Node getTourNodeByParameter() throws RepositoryException {
+        return tourServices.getTourNodeByParameter();
+    }
+
+    @Benchmark
+    public List<Tour> getToursByCategory() {
+        return tourServices.getToursByCategory(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, getCategoryIdentifier());
+    }
+
+    @Benchmark
+    public List<Tour> getFeaturedToursByCategory() {
+        return tourServices.getToursByCategory(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, getCategoryIdentifier(), true);
+    }
+
+    @Benchmark
+    public Tour marshallTourNode() {
+        return tourServices.marshallTourNode(tourNode);
+    }
+
+    @Benchmark
+    public void getCategoryLink(Blackhole blackhole) {
+        blackhole.consume(tourServices.getCategoryLink(repository.getSiteRoot(), "category-" + position % categories, ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW));
+    }
+
+    @Benchmark
+    public List<Tour> carouselGetTours() {
+        return carouselModel.getTours();
+    }
+
+    @Benchmark
+    public void relatedToursByCategory(Blackhole blackhole) throws RepositoryException {
+        final Tour currentTour = tourServices.getTourByParameter();
+        for (Category tourType : currentTour != null ? currentTour.getTourTypes() : Collections.<Category>emptyList()) {
+            blackhole.consume(relatedToursModel.getRelatedToursByCategory(tourType.getIdentifier()));
+        }
+    }
+
+    @Benchmark
+    public List<Tour> similarTours() {
+        return relatedToursModel.getSimilarTours(3);
+    }
+
+    @Benchmark
+    public TourPage searchTours() {
+        return tourServices.searchTours("location " + position % 50, 0, 10);
+    }
+
+    private String getCategoryIdentifier() {
+        return repository.getCategoryIdentifiers().get(position % categories);
+    }
+}
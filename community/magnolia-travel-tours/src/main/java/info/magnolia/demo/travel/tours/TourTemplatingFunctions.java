@@ -33,10 +33,15 @@
  */
 package info.magnolia.demo.travel.tours;
 
+import info.magnolia.demo.travel.tours.metrics.Timer;
 import info.magnolia.demo.travel.tours.service.Category;
+import info.magnolia.demo.travel.tours.service.Tour;
+import info.magnolia.demo.travel.tours.service.TourPage;
 import info.magnolia.demo.travel.tours.service.TourServices;
 import info.magnolia.jcr.util.ContentMap;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.jcr.Node;
@@ -55,7 +60,40 @@ public class TourTemplatingFunctions {
     }
 
     public Category getCategoryByUrl() {
-        return tourServices.getCategoryByUrl();
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getCategoryByUrl")) {
+            return tourServices.getCategoryByUrl();
+        }
+    }
+
+    /**
+     * Returns at most <code>limit</code> tours referencing the given category, starting at <code>offset</code>.
+     */
+    public List<Tour> getToursByCategory(String categoryPropertyName, String identifier, int offset, int limit) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getToursByCategory")) {
+            return tourServices.getToursByCategory(categoryPropertyName, identifier, false, offset, limit);
+        }
+    }
+
+    /**
+     * Returns the page of tours referencing the given category which the given cursor points to.
+     *
+     * @see TourPage#getNextCursor()
+     */
+    public TourPage getTourPage(String categoryPropertyName, String identifier, String cursor, int limit) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getTourPage")) {
+            return tourServices.getTourPage(categoryPropertyName, identifier, false, cursor, limit);
+        }
+    }
+
+    /**
+     * Returns the page of at most <code>limit</code> tours matching the given query, starting at <code>offset</code>.
+     *
+     * @see TourServices#searchTours(String, int, int)
+     */
+    public TourPage searchTours(String query, int offset, int limit) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.searchTours")) {
+            return tourServices.searchTours(query, offset, limit);
+        }
     }
 
     /**
@@ -75,7 +113,9 @@ public class TourTemplatingFunctions {
      * {@link ToursModule#TEMPLATE_SUB_TYPE_TOUR_OVERVIEW} to link to.</p>
      */
     public String getTourTypeLink(Node content, String tourTypeName) {
-        return tourServices.getCategoryLink(content, tourTypeName, ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getTourTypeLink")) {
+            return tourServices.getCategoryLink(content, tourTypeName, ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+        }
     }
 
     /**
@@ -95,7 +135,29 @@ public class TourTemplatingFunctions {
      * {@link ToursModule#TEMPLATE_SUB_TYPE_DESTINATION_OVERVIEW} to link to.</p>
      */
     public String getDestinationLink(Node content, String destinationName) {
-        return tourServices.getCategoryLink(content, destinationName, ToursModule.TEMPLATE_SUB_TYPE_DESTINATION_OVERVIEW);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getDestinationLink")) {
+            return tourServices.getCategoryLink(content, destinationName, ToursModule.TEMPLATE_SUB_TYPE_DESTINATION_OVERVIEW);
+        }
+    }
+
+    /**
+     * Returns the markup of a fragment of the given tour as rendered before on the site of the given content, or
+     * <code>null</code> if it has to be rendered and passed to {@link #putTourFragment}.
+     */
+    public String getTourFragment(String fragment, Tour tour, ContentMap content) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getTourFragment")) {
+            return tourServices.getTourFragment(fragment, tour.getIdentifier(), content.getJCRNode());
+        }
+    }
+
+    /**
+     * Keeps the rendered markup of a fragment of the given tour and returns it.
+     */
+    public String putTourFragment(String fragment, Tour tour, ContentMap content, String markup) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.putTourFragment")) {
+            tourServices.putTourFragment(fragment, tour.getIdentifier(), content.getJCRNode(), markup);
+            return markup;
+        }
     }
 
     public String getTourLink(ContentMap tourContentMap) {
@@ -103,7 +165,9 @@ public class TourTemplatingFunctions {
     }
 
     public String getTourLink(Node tourNode) {
-        return tourServices.getTourLink(tourNode);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTemplatingFunctions.getTourLink")) {
+            return tourServices.getTourLink(tourNode);
+        }
     }
 
 }
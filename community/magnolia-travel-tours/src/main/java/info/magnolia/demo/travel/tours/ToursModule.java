@@ -33,13 +33,18 @@
  */
 package info.magnolia.demo.travel.tours;
 
+import info.magnolia.demo.travel.tours.service.TourServices;
+import info.magnolia.module.ModuleLifecycle;
+import info.magnolia.module.ModuleLifecycleContext;
+import info.magnolia.objectfactory.Components;
+
 /**
  * This class is optional and represents the configuration for the tours module.
  * By exposing simple getter/setter/adder methods, this bean can be configured via content2bean
  * using the properties and node from <tt>config:/modules/tours</tt>.
  * If you don't need this, simply remove the reference to this class in the module descriptor xml.
  */
-public class ToursModule {
+public class ToursModule implements ModuleLifecycle {
 
     public static final String TOURS_REPOSITORY_NAME = "tours";
 
@@ -61,6 +66,32 @@ public class ToursModule {
      */
     private String defaultTourName;
 
+    /**
+     * Specifies the maximum number of rendered tour fragments (e.g. teaser cards) to keep; none are kept if not positive.
+     */
+    private int fragmentCacheSize = 1000;
+
+    /**
+     * Specifies the maximum number of featured tours listed per category; all are listed if not positive.
+     */
+    private int maxFeaturedTours;
+
+    /**
+     * Specifies the weight of a shared tour type when ranking similar tours; tour types are ignored if not positive.
+     */
+    private int tourTypeSimilarityWeight = 2;
+
+    /**
+     * Specifies the weight of a shared destination when ranking similar tours; destinations are ignored if not positive.
+     */
+    private int destinationSimilarityWeight = 1;
+
+    /**
+     * Specifies the number of threads reading tours in parallel whenever the tour catalogue is built, e.g. on a cold
+     * cache; tours are read serially if not positive.
+     */
+    private int marshallingThreads;
+
     public String getDestinationRootNode() {
         return destinationRootNode;
     }
@@ -85,4 +116,58 @@ public class ToursModule {
         this.defaultTourName = defaultTourName;
     }
 
+    public int getFragmentCacheSize() {
+        return fragmentCacheSize;
+    }
+
+    public void setFragmentCacheSize(int fragmentCacheSize) {
+        this.fragmentCacheSize = fragmentCacheSize;
+    }
+
+    public int getMaxFeaturedTours() {
+        return maxFeaturedTours;
+    }
+
+    public void setMaxFeaturedTours(int maxFeaturedTours) {
+        this.maxFeaturedTours = maxFeaturedTours;
+    }
+
+    public int getTourTypeSimilarityWeight() {
+        return tourTypeSimilarityWeight;
+    }
+
+    public void setTourTypeSimilarityWeight(int tourTypeSimilarityWeight) {
+        this.tourTypeSimilarityWeight = tourTypeSimilarityWeight;
+    }
+
+    public int getDestinationSimilarityWeight() {
+        return destinationSimilarityWeight;
+    }
+
+    public void setDestinationSimilarityWeight(int destinationSimilarityWeight) {
+        this.destinationSimilarityWeight = destinationSimilarityWeight;
+    }
+
+    public int getMarshallingThreads() {
+        return marshallingThreads;
+    }
+
+    public void setMarshallingThreads(int marshallingThreads) {
+        this.marshallingThreads = marshallingThreads;
+    }
+
+    @Override
+    public void start(ModuleLifecycleContext moduleLifecycleContext) {
+        final TourServices tourServices = Components.getComponent(TourServices.class);
+        tourServices.start();
+        tourServices.getMetrics().register();
+    }
+
+    @Override
+    public void stop(ModuleLifecycleContext moduleLifecycleContext) {
+        final TourServices tourServices = Components.getComponent(TourServices.class);
+        tourServices.getMetrics().unregister();
+        tourServices.stop();
+    }
+
 }
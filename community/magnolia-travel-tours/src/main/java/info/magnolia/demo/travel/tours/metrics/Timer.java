@@ -0,0 +1,177 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram of a method, with power of two buckets of nanoseconds.
+ *
+ * <p>Call sites time themselves in a <code>try</code>-with-resources block over {@link #time()}:</p>
+ * <pre>
+ * try (Timer.Timing timing = metrics.time("TourListModel.getTourPage")) {
+ *     return tourServices.getTourPage(...);
+ * }
+ * </pre>
+ */
+public class Timer implements TimerMBean {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Starts timing a call, which is recorded once the returned {@link Timing} is closed.
+     */
+    public Timing time() {
+        return new Timing(this);
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        // Bucket i holds [2^i, 2^(i+1))
+        buckets.incrementAndGet(Math.max(0, BUCKETS - 1 - Long.numberOfLeadingZeros(nanos)));
+        count.increment();
+        totalNanos.add(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        final long count = getCount();
+        return count > 0 ? totalNanos.sum() / 1000d / count : 0;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return getPercentileMicros(0.5);
+    }
+
+    @Override
+    public long getP95Micros() {
+        return getPercentileMicros(0.95);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return getPercentileMicros(0.99);
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile.
+     */
+    long getPercentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return TimeUnit.NANOSECONDS.toMicros(i < BUCKETS - 1 ? (2L << i) - 1 : Long.MAX_VALUE);
+            }
+        }
+        return getMaxMicros();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, mean=%.1fus, p50=%dus, p95=%dus, p99=%dus, max=%dus", name, getCount(), getMeanMicros(), getP50Micros(), getP95Micros(), getP99Micros(), getMaxMicros());
+    }
+
+    /**
+     * A call being timed; records its latency when closed.
+     */
+    public static final class Timing implements AutoCloseable {
+
+        private final Timer timer;
+        private final long start = System.nanoTime();
+
+        private Timing(Timer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public void close() {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Metrics of the tours module: latencies of the models and templating functions, i.e. of the calls templates make,
+ * counts of JCR access and marshalled objects as well as hits and misses of its caches.
+ *
+ * <p>Once {@link #register() registered} by the {@link info.magnolia.demo.travel.tours.ToursModule}, metrics are
+ * published as MBeans of the <code>{@value #DOMAIN}</code> domain. Timers and caches are looked up by constant names
+ * in hash maps; they are only sorted by name when a {@link #snapshot()} is taken.</p>
+ */
+public class TourMetrics implements TourMetricsMBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TourMetrics.class);
+
+    public static final String DOMAIN = "info.magnolia.demo.travel.tours";
+
+    private final LongAdder jcrQueries = new LongAdder();
+    private final LongAdder nodeLookups = new LongAdder();
+    private final LongAdder marshalledTours = new LongAdder();
+    private final LongAdder marshalledCategories = new LongAdder();
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    private MBeanServer mBeanServer;
+
+    /**
+     * Returns the timer of the given name, e.g. <code>TourDetailModel.getTour</code>.
+     */
+    public Timer timer(String name) {
+        Timer timer = timers.get(name);
+        if (timer == null) {
+            final Timer newTimer = new Timer(name);
+            timer = timers.putIfAbsent(name, newTimer);
+            if (timer == null) {
+                timer = newTimer;
+                register(getObjectName("Timer", name), timer);
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Starts timing a call with the timer of the given name; see {@link Timer#time()}.
+     */
+    public Timer.Timing time(String name) {
+        return timer(name).time();
+    }
+
+    /**
+     * Returns the statistics of the cache of the given name.
+     */
+    public CacheStats cache(String name) {
+        CacheStats cache = caches.get(name);
+        if (cache == null) {
+            final CacheStats newCache = new CacheStats(name);
+            cache = caches.putIfAbsent(name, newCache);
+            if (cache == null) {
+                cache = newCache;
+                register(getObjectName("Cache", name), cache);
+            }
+        }
+        return cache;
+    }
+
+    public void jcrQuery() {
+        jcrQueries.increment();
+    }
+
+    public void nodeLookups(int count) {
+        nodeLookups.add(count);
+    }
+
+    public void marshalledTour() {
+        marshalledTours.increment();
+    }
+
+    public void marshalledCategory() {
+        marshalledCategories.increment();
+    }
+
+    @Override
+    public long getJcrQueries() {
+        return jcrQueries.sum();
+    }
+
+    @Override
+    public long getNodeLookups() {
+        return nodeLookups.sum();
+    }
+
+    @Override
+    public long getMarshalledTours() {
+        return marshalledTours.sum();
+    }
+
+    @Override
+    public long getMarshalledCategories() {
+        return marshalledCategories.sum();
+    }
+
+    @Override
+    public String snapshot() {
+        final StringBuilder snapshot = new StringBuilder();
+        snapshot.append("jcrQueries=").append(getJcrQueries())
+                .append(", nodeLookups=").append(getNodeLookups())
+                .append(", marshalledTours=").append(getMarshalledTours())
+                .append(", marshalledCategories=").append(getMarshalledCategories()).append('\n');
+        for (Timer timer : new TreeMap<>(timers).values()) {
+            snapshot.append(timer).append('\n');
+        }
+        for (CacheStats cache : new TreeMap<>(caches).values()) {
+            snapshot.append(cache).append('\n');
+        }
+        return snapshot.toString();
+    }
+
+    @Override
+    public void reset() {
+        jcrQueries.reset();
+        nodeLookups.reset();
+        marshalledTours.reset();
+        marshalledCategories.reset();
+        for (Timer timer : timers.values()) {
+            timer.reset();
+        }
+        for (CacheStats cache : caches.values()) {
+            cache.reset();
+        }
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server.
+     */
+    public synchronized void register() {
+        unregister();
+        mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        register(getObjectName("TourMetrics", null), this);
+        for (Timer timer : timers.values()) {
+            register(getObjectName("Timer", timer.getName()), timer);
+        }
+        for (CacheStats cache : caches.values()) {
+            register(getObjectName("Cache", cache.getName()), cache);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (mBeanServer == null) {
+            return;
+        }
+        try {
+            for (ObjectName name : mBeanServer.queryNames(new ObjectName(DOMAIN + ":*"), null)) {
+                mBeanServer.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Could not unregister tour metrics.", e);
+        }
+        mBeanServer = null;
+    }
+
+    private synchronized void register(ObjectName name, Object mBean) {
+        if (mBeanServer == null || name == null) {
+            return;
+        }
+        try {
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            mBeanServer.registerMBean(mBean, name);
+        } catch (JMException e) {
+            log.warn("Could not register tour metrics [{}].", name, e);
+        }
+    }
+
+    private static ObjectName getObjectName(String type, String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + type + (name != null ? ",name=" + ObjectName.quote(name) : ""));
+        } catch (JMException e) {
+            log.warn("Could not name tour metrics [{}].", name, e);
+            return null;
+        }
+    }
+}
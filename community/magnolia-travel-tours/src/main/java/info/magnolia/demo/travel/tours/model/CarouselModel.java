@@ -33,8 +33,7 @@
  */
 package info.magnolia.demo.travel.tours.model;
 
-import info.magnolia.context.MgnlContext;
-import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.demo.travel.tours.metrics.Timer;
 import info.magnolia.demo.travel.tours.service.Tour;
 import info.magnolia.demo.travel.tours.service.TourServices;
 import info.magnolia.jcr.util.PropertyUtil;
@@ -46,11 +45,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import javax.jcr.Node;
-import javax.jcr.RepositoryException;
-import javax.jcr.Session;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 
@@ -61,8 +55,6 @@ import com.google.inject.Inject;
  */
 public class CarouselModel<RD extends RenderableDefinition> extends RenderingModelImpl<RD> {
 
-    private static final Logger log = LoggerFactory.getLogger(CarouselModel.class);
-
     public static final String PROPERTY_NAME_TOURS = "tours";
 
     private final TourServices tourServices;
@@ -74,31 +66,14 @@ public class CarouselModel<RD extends RenderableDefinition> extends RenderingMod
     }
 
     public List<Tour> getTours() {
-        final List<Tour> tours = new LinkedList<Tour>();
-
-        final Object object = PropertyUtil.getPropertyValueObject(content, PROPERTY_NAME_TOURS);
-        if (object instanceof List) {
-            final List<String> results = (List<String>) object;
-            for (String identifier : results) {
-                try {
-                    final Tour tour = getTour(identifier);
-                    if (tour != null) {
-                        tours.add(tour);
-                    }
-                } catch (RepositoryException e) {
-                    log.error("Could not retrieve linked tour with identifier [{}].", identifier, e);
-                }
+        try (Timer.Timing timing = tourServices.getMetrics().time("CarouselModel.getTours")) {
+            final Object object = PropertyUtil.getPropertyValueObject(content, PROPERTY_NAME_TOURS);
+            if (object instanceof List) {
+                return tourServices.getToursByIdentifiers((List<String>) object);
             }
-        }
 
-        return tours;
-    }
-
-    private Tour getTour(String identifier) throws RepositoryException {
-        final Session session = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
-        final Node tourNode = session.getNodeByIdentifier(identifier);
-
-        return tourServices.marshallTourNode(tourNode);
+            return new LinkedList<Tour>();
+        }
     }
 
 }
@@ -33,12 +33,14 @@
  */
 package info.magnolia.demo.travel.tours.model;
 
+import info.magnolia.demo.travel.tours.metrics.Timer;
 import info.magnolia.demo.travel.tours.model.definition.TourCategoryTemplateDefinition;
 import info.magnolia.demo.travel.tours.service.Category;
 import info.magnolia.demo.travel.tours.service.Tour;
 import info.magnolia.demo.travel.tours.service.TourServices;
 import info.magnolia.rendering.model.RenderingModel;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -48,10 +50,6 @@ import javax.jcr.RepositoryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-
 /**
  * Model for getting related Tours based on type- and destination-category.
  *
@@ -67,29 +65,40 @@ public class RelatedToursModel<RD extends TourCategoryTemplateDefinition> extend
     }
 
     public List<Category> getRelatedCategoriesByParameter() {
-        return getTourServices().getRelatedCategoriesByParameter();
+        try (Timer.Timing timing = getTourServices().getMetrics().time("RelatedToursModel.getRelatedCategoriesByParameter")) {
+            return getTourServices().getRelatedCategoriesByParameter();
+        }
     }
 
     /**
-     * Filters the current tour from the category.
+     * Returns at most <code>maxTours</code> tours most similar to the current tour, i.e. sharing the most tour types
+     * and destinations with it; see {@link TourServices#getSimilarTours(String, int)}.
      */
-    public List<Tour> getRelatedToursByCategory(String identifier) {
-        List<Tour> relatedTours = Lists.newArrayList();
+    public List<Tour> getSimilarTours(int maxTours) {
+        try (Timer.Timing timing = getTourServices().getMetrics().time("RelatedToursModel.getSimilarTours")) {
+            final Node currentTourNode = getTourServices().getTourNodeByParameter();
+            if (currentTourNode != null) {
+                return getTourServices().getSimilarTours(currentTourNode.getIdentifier(), maxTours);
+            }
+        } catch (RepositoryException e) {
+            log.error("Could not retrieve identifier for the current tour.", e);
+        }
 
-        try {
-            final String currentIdentifier = getTourServices().getTourNodeByParameter().getIdentifier();
-            List<Tour> tours = getTourServices().getToursByCategory(definition.getCategory(), identifier, true);
+        return Collections.emptyList();
+    }
 
-            relatedTours = Lists.newArrayList(Iterables.filter(tours, new Predicate<Tour>() {
-                @Override
-                public boolean apply(Tour tour) {
-                    return !currentIdentifier.equals(tour.getIdentifier());
-                }
-            }));
+    /**
+     * Returns the featured tours of the category without the current tour.
+     */
+    public List<Tour> getRelatedToursByCategory(String identifier) {
+        try (Timer.Timing timing = getTourServices().getMetrics().time("RelatedToursModel.getRelatedToursByCategory")) {
+            final Node currentTourNode = getTourServices().getTourNodeByParameter();
+            final String currentIdentifier = currentTourNode != null ? currentTourNode.getIdentifier() : null;
+            return getTourServices().getFeaturedToursByCategory(definition.getCategory(), identifier, currentIdentifier);
         } catch (RepositoryException e) {
             log.error("Could not retrieve identifier for the current tour.", e);
         }
 
-        return relatedTours;
+        return Collections.emptyList();
     }
-}
\ No newline at end of file
+}
@@ -33,6 +33,7 @@
  */
 package info.magnolia.demo.travel.tours.model;
 
+import info.magnolia.demo.travel.tours.metrics.Timer;
 import info.magnolia.demo.travel.tours.service.Tour;
 import info.magnolia.demo.travel.tours.service.TourServices;
 import info.magnolia.rendering.model.RenderingModel;
@@ -62,9 +63,8 @@ public class TourDetailModel extends RenderingModelImpl<TemplateDefinition> {
     }
 
     public Tour getTour() {
-        try {
-            final Node node = tourServices.getTourNodeByParameter();
-            return tourServices.marshallTourNode(node);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourDetailModel.getTour")) {
+            return tourServices.getTourByParameter();
         } catch (RepositoryException e) {
             log.error("Could not get tour by tour parameter.", e);
         }
@@ -33,18 +33,27 @@
  */
 package info.magnolia.demo.travel.tours.model;
 
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.tours.metrics.Timer;
 import info.magnolia.demo.travel.tours.model.definition.TourCategoryTemplateDefinition;
 import info.magnolia.demo.travel.tours.service.Category;
 import info.magnolia.demo.travel.tours.service.Tour;
+import info.magnolia.demo.travel.tours.service.TourPage;
 import info.magnolia.demo.travel.tours.service.TourServices;
 import info.magnolia.rendering.model.RenderingModel;
 import info.magnolia.rendering.model.RenderingModelImpl;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.jcr.Node;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
 /**
  * Model for retrieving tours by type- or destination-category.
  *
@@ -52,6 +61,8 @@ import javax.jcr.Node;
  */
 public class TourListModel<RD extends TourCategoryTemplateDefinition> extends RenderingModelImpl<RD> {
 
+    public static final String PAGE_QUERY_PARAMETER = "page";
+
     private final TourServices tourServices;
 
     @Inject
@@ -62,18 +73,71 @@ public class TourListModel<RD extends TourCategoryTemplateDefinition> extends Re
     }
 
     public Category getCategoryByUrl() {
-        return tourServices.getCategoryByUrl();
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourListModel.getCategoryByUrl")) {
+            return tourServices.getCategoryByUrl();
+        }
     }
 
     public Category getCategoryByName(String categoryName) {
-        return tourServices.getCategoryByName(categoryName);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourListModel.getCategoryByName")) {
+            return tourServices.getCategoryByName(categoryName);
+        }
     }
 
     public List<Tour> getToursByCategory(String identifier) {
-        return tourServices.getToursByCategory(definition.getCategory(), identifier);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourListModel.getToursByCategory")) {
+            return tourServices.getToursByCategory(definition.getCategory(), identifier);
+        }
+    }
+
+    public List<Tour> getToursByCategory(String identifier, int offset, int limit) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourListModel.getToursByCategory")) {
+            return tourServices.getToursByCategory(definition.getCategory(), identifier, false, offset, limit);
+        }
+    }
+
+    public TourPage getTourPage(String identifier, String cursor, int limit) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourListModel.getTourPage")) {
+            return tourServices.getTourPage(definition.getCategory(), identifier, false, cursor, limit);
+        }
+    }
+
+    /**
+     * Returns the page requested by the {@value #PAGE_QUERY_PARAMETER} parameter, sized by the
+     * {@link TourCategoryTemplateDefinition#getPageSize() page size} of the definition.
+     */
+    public TourPage getTourPage(String identifier) {
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourListModel.getTourPage")) {
+            final int pageNumber = Math.max(1, NumberUtils.toInt(MgnlContext.getParameter(PAGE_QUERY_PARAMETER), 1));
+            final int pageSize = definition.getPageSize();
+            return tourServices.getTourPage(definition.getCategory(), identifier, false, pageSize > 0 ? (pageNumber - 1) * pageSize : 0, pageSize);
+        }
+    }
+
+    /**
+     * Returns the link to the given page of the list: the requested URI, selectors included, with all query parameters
+     * of the request but the {@value #PAGE_QUERY_PARAMETER} parameter set to <code>pageNumber</code>.
+     */
+    public String getPageLink(int pageNumber) {
+        final StringBuilder link = new StringBuilder(StringUtils.defaultString(MgnlContext.getAggregationState().getOriginalURI()));
+        for (Map.Entry<String, String> parameter : MgnlContext.getParameters().entrySet()) {
+            if (!PAGE_QUERY_PARAMETER.equals(parameter.getKey())) {
+                appendParameter(link, parameter.getKey(), parameter.getValue());
+            }
+        }
+        appendParameter(link, PAGE_QUERY_PARAMETER, String.valueOf(pageNumber));
+        return link.toString();
     }
 
     protected TourServices getTourServices() {
         return tourServices;
     }
+
+    private static void appendParameter(StringBuilder link, String name, String value) {
+        try {
+            link.append(link.indexOf("?") < 0 ? '?' : '&').append(URLEncoder.encode(name, "UTF-8")).append('=').append(URLEncoder.encode(StringUtils.defaultString(value), "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -33,13 +33,12 @@
  */
 package info.magnolia.demo.travel.tours.model;
 
-import info.magnolia.context.MgnlContext;
 import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.demo.travel.tours.metrics.Timer;
 import info.magnolia.demo.travel.tours.service.Category;
 import info.magnolia.demo.travel.tours.service.Tour;
 import info.magnolia.demo.travel.tours.service.TourServices;
 import info.magnolia.jcr.util.PropertyUtil;
-import info.magnolia.module.categorization.CategorizationModule;
 import info.magnolia.rendering.model.RenderingModel;
 import info.magnolia.rendering.model.RenderingModelImpl;
 import info.magnolia.rendering.template.RenderableDefinition;
@@ -49,11 +48,6 @@ import java.util.List;
 
 import javax.inject.Inject;
 import javax.jcr.Node;
-import javax.jcr.RepositoryException;
-import javax.jcr.Session;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Model for displaying the 'featured' tourTypes on the home page. reads the 'tourTypes' property from the content
@@ -63,8 +57,6 @@ import org.slf4j.LoggerFactory;
  */
 public class TourTeaserModel<RD extends RenderableDefinition> extends RenderingModelImpl<RD> {
 
-    private static final Logger log = LoggerFactory.getLogger(TourTeaserModel.class);
-
     private final TourServices tourServices;
 
     @Inject
@@ -74,38 +66,19 @@ public class TourTeaserModel<RD extends RenderableDefinition> extends RenderingM
     }
 
     public List<Category> getTours() {
-        final List<Category> categories = new LinkedList<Category>();
-
-        final Object object = PropertyUtil.getPropertyValueObject(content, Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY);
-        if (object instanceof List) {
-            List<String> results = (List<String>) object;
-            for (String identifier : results) {
-                try {
-                    final Category category = getCategory(identifier);
-                    if (category != null) {
-                        categories.add(category);
-                    }
-                } catch (RepositoryException e) {
-                    log.error("Could not retrieve linked tour.", e);
+        try (Timer.Timing timing = tourServices.getMetrics().time("TourTeaserModel.getTours")) {
+            final List<Category> categories = new LinkedList<Category>();
+
+            final Object object = PropertyUtil.getPropertyValueObject(content, Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY);
+            if (object instanceof List) {
+                for (Category category : tourServices.getCategoriesByIdentifiers((List<String>) object)) {
+                    String link = tourServices.getCategoryLink(content, category.getNodeName(), ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+                    categories.add(category.withLink(link));
                 }
             }
-        }
 
-        return categories;
-    }
-
-    private Category getCategory(String identifier) throws RepositoryException {
-        final Session session = MgnlContext.getJCRSession(CategorizationModule.CATEGORIZATION_WORKSPACE);
-        final Node categoryNode = session.getNodeByIdentifier(identifier);
-
-        final Category category = tourServices.marshallCategoryNode(categoryNode);
-        if (category != null) {
-            String link = tourServices.getCategoryLink(content, categoryNode.getName(), ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
-            category.setLink(link);
+            return categories;
         }
-
-        return category;
     }
 
-
 }
@@ -45,6 +45,11 @@ public class TourCategoryTemplateDefinition extends ConfiguredTemplateDefinition
      */
     private String category;
 
+    /**
+     * Number of tours per page for listing components; <code>0</code> lists all tours on one page.
+     */
+    private int pageSize;
+
     public String getCategory() {
         return category;
     }
@@ -52,4 +57,12 @@ public class TourCategoryTemplateDefinition extends ConfiguredTemplateDefinition
     public void setCategory(String category) {
         this.category = category;
     }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
 }
@@ -126,4 +126,18 @@ public class Category {
     public void setNodeName(String nodeName) {
         this.nodeName = nodeName;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns a modifiable copy of this category linking to the given page.
+     */
+    public Category withLink(String link) {
+        final Category category = new Category(getName(), getIdentifier());
+        category.setNodeName(getNodeName());
+        category.setDescription(getDescription());
+        category.setBody(getBody());
+        category.setImage(getImage());
+        category.setIcon(getIcon());
+        category.setLink(link);
+        return category;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.repository.RepositoryConstants;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Links to the category overview pages (feature pages of a given sub type) per site root and locale, as used by
+ * {@link TourServices#getCategoryLink}.
+ *
+ * <p>Links are kept until a page of the <code>website</code> workspace changes. A site without overview page is cached
+ * as empty link.</p>
+ */
+public class CategoryLinkCache extends ObservedCache {
+
+    private final ConcurrentMap<String, String> links = new ConcurrentHashMap<>();
+
+    public CategoryLinkCache() {
+        invalidateOnChangesOf(RepositoryConstants.WEBSITE);
+    }
+
+    /**
+     * Returns the cached link of the overview page or <code>null</code> if it has not been resolved yet.
+     */
+    public String get(String siteRootIdentifier, String featureSubType, Locale locale) {
+        return links.get(getKey(siteRootIdentifier, featureSubType, locale));
+    }
+
+    public void put(String siteRootIdentifier, String featureSubType, Locale locale, String link) {
+        links.put(getKey(siteRootIdentifier, featureSubType, locale), link);
+    }
+
+    @Override
+    public void invalidate() {
+        links.clear();
+    }
+
+    private static String getKey(String siteRootIdentifier, String featureSubType, Locale locale) {
+        return siteRootIdentifier + "|" + featureSubType + "|" + locale;
+    }
+}
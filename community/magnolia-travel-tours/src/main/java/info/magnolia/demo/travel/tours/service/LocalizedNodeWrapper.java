@@ -0,0 +1,98 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.cms.i18n.I18nContentSupport;
+import info.magnolia.jcr.wrapper.DelegateNodeWrapper;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+
+/**
+ * Reads the properties of a node in the given locale, falling back to its language, to the fallback locale and finally
+ * to the property without locale; unlike {@link info.magnolia.jcr.wrapper.I18nNodeWrapper}, the locale isn't taken
+ * from the current context, so nodes can be read in the system context of any thread.
+ */
+final class LocalizedNodeWrapper extends DelegateNodeWrapper {
+
+    private final I18nContentSupport i18nSupport;
+    private final Locale locale;
+
+    LocalizedNodeWrapper(Node node, I18nContentSupport i18nSupport, Locale locale) {
+        super(node);
+        this.i18nSupport = i18nSupport;
+        this.locale = locale;
+    }
+
+    @Override
+    public boolean hasProperty(String relPath) throws RepositoryException {
+        return getLocalizedProperty(relPath) != null;
+    }
+
+    @Override
+    public Property getProperty(String relPath) throws PathNotFoundException, RepositoryException {
+        final Property property = getLocalizedProperty(relPath);
+        if (property == null) {
+            throw new PathNotFoundException(relPath);
+        }
+        return property;
+    }
+
+    private Property getLocalizedProperty(String name) throws RepositoryException {
+        final Node node = getWrappedNode();
+        if (i18nSupport.isEnabled()) {
+            final Set<Locale> locales = new LinkedHashSet<>();
+            if (!Locale.ROOT.equals(locale)) {
+                locales.add(locale);
+                locales.add(new Locale(locale.getLanguage()));
+            }
+            if (i18nSupport.getFallbackLocale() != null) {
+                locales.add(i18nSupport.getFallbackLocale());
+            }
+            for (Locale candidate : locales) {
+                final Property property = i18nSupport.getProperty(node, name, candidate);
+                if (property != null) {
+                    return property;
+                }
+            }
+        }
+        return node.hasProperty(name) ? node.getProperty(name) : null;
+    }
+}
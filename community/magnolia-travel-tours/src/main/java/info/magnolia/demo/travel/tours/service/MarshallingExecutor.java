@@ -0,0 +1,179 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.context.MgnlContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool reading tours in parallel, see {@link info.magnolia.demo.travel.tours.ToursModule#setMarshallingThreads(int)}.
+ *
+ * <p>Tasks run in the system context with the JCR sessions of the pool thread running them, which are released once
+ * the task is done, so no session is ever used by two threads. Tasks thus can't rely on the context of the request
+ * they were submitted from: they get what they need (e.g. the locale) passed explicitly and must only return detached
+ * values, never nodes or assets.</p>
+ */
+public class MarshallingExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(MarshallingExecutor.class);
+
+    private volatile ThreadPoolExecutor executor;
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Runs the tasks in parallel and returns their results in the order of the tasks. A task failing or returning
+     * <code>null</code> doesn't contribute a result; it doesn't affect the other tasks either. Unless the pool is
+     * started, tasks run one after the other on the calling thread, still in the system context.
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        final ThreadPoolExecutor executor = this.executor;
+        final List<T> results = new ArrayList<>(tasks.size());
+        if (executor == null) {
+            for (Callable<T> task : tasks) {
+                try {
+                    // The calling thread may still use its system sessions, keep them
+                    addResult(results, new SystemContextTask<>(task, false).call());
+                } catch (Exception e) {
+                    log.warn("Could not marshall tours.", e);
+                }
+            }
+            return results;
+        }
+
+        final List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(new SystemContextTask<>(task, true)));
+        }
+
+        for (Future<T> future : futures) {
+            try {
+                addResult(results, future.get());
+            } catch (ExecutionException e) {
+                log.warn("Could not marshall tours.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<T> pending : futures) {
+                    pending.cancel(true);
+                }
+                log.warn("Interrupted while marshalling tours, returning the results of {} out of {} tasks.", results.size(), tasks.size());
+                break;
+            }
+        }
+        return results;
+    }
+
+    private static <T> void addResult(List<T> results, T result) {
+        if (result != null) {
+            results.add(result);
+        }
+    }
+
+    /**
+     * Starts a pool of the given number of threads; stays serial if it is not positive.
+     */
+    public synchronized void start(int threads) {
+        stop();
+        if (threads > 0) {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new MarshallingThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            this.executor = executor;
+        }
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Runs a task in the system context, releasing the system sessions of the current thread afterwards if asked to.
+     */
+    private static final class SystemContextTask<T> implements Callable<T> {
+
+        private final Callable<T> task;
+        private final boolean release;
+
+        private SystemContextTask(Callable<T> task, boolean release) {
+            this.task = task;
+            this.release = release;
+        }
+
+        @Override
+        public T call() throws Exception {
+            try {
+                return MgnlContext.doInSystemContext(new MgnlContext.Op<T, Exception>() {
+                    @Override
+                    public T exec() throws Exception {
+                        return task.call();
+                    }
+                }, false);
+            } finally {
+                if (release) {
+                    MgnlContext.getSystemContext().release();
+                }
+            }
+        }
+    }
+
+    private static final class MarshallingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "tour-marshalling-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
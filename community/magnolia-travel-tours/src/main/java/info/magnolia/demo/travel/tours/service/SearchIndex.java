@@ -0,0 +1,326 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.demo.travel.tours.service.TourCatalogue.CategoryEntry;
+import info.magnolia.demo.travel.tours.service.TourCatalogue.TourEntry;
+
+import java.text.BreakIterator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Full-text index of the tours of a {@link TourCatalogue.Snapshot} over their name, location, category names,
+ * description and body, as used by {@link TourServices#searchTours}.
+ *
+ * <p>Texts are split into words as of the locale of the snapshot, lower-cased and stripped of diacritics. Each term
+ * maps to the tours containing it along with a frequency weighted by the field it occurs in; a search only returns
+ * tours containing all terms of the query, ranked by the sum of their weighted frequencies times the inverse document
+ * frequency of each term.</p>
+ *
+ * <p>Like {@link TourCatalogue.CategoryIndex}, postings are never modified once built: a {@link Builder} copies only
+ * the postings it changes, so that changed tours are patched in without re-reading the whole catalogue. Terms are
+ * spread over {@value #SHARDS} shards by hash, of which the builder only copies the ones holding changed terms, so
+ * that patching a tour doesn't copy the whole vocabulary either.</p>
+ */
+final class SearchIndex {
+
+    static final int NAME_WEIGHT = 5;
+    static final int LOCATION_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 2;
+    static final int BODY_WEIGHT = 1;
+
+    static final int SHARDS = 1024;
+
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern LINKS = Pattern.compile("\\$\\{link:.*?\\}\\}\\}");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final Locale locale;
+    private final List<Map<String, Map<String, Integer>>> shards;
+    private final int size;
+
+    private SearchIndex(Locale locale, List<Map<String, Map<String, Integer>>> shards, int size) {
+        this.locale = locale;
+        this.shards = shards;
+        this.size = size;
+    }
+
+    static SearchIndex empty(Locale locale) {
+        return new SearchIndex(locale, Collections.nCopies(SHARDS, Collections.<String, Map<String, Integer>>emptyMap()), 0);
+    }
+
+    /**
+     * Indexes the given tours, resolving the names of their categories from <code>categories</code>.
+     */
+    static SearchIndex build(Collection<TourEntry> tours, Map<String, CategoryEntry> categories, Locale locale) {
+        final Builder builder = new Builder(empty(locale), categories);
+        for (TourEntry tour : tours) {
+            builder.update(null, tour);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Number of indexed tours.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the tours containing the given term along with its weighted frequency in them, or <code>null</code>.
+     */
+    Map<String, Integer> getPosting(String term) {
+        return shards.get(getShard(term)).get(term);
+    }
+
+    /**
+     * Returns the identifiers of the tours containing all terms of the given query, best first; ties are ordered by
+     * identifier. Blank queries match no tour.
+     */
+    List<String> search(String query) {
+        final Set<String> terms = new LinkedHashSet<>(tokenize(query, locale));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Map<String, Integer>> termPostings = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            final Map<String, Integer> posting = getPosting(term);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            termPostings.add(posting);
+        }
+        // Candidates come from the rarest term, the other postings are only probed.
+        Collections.sort(termPostings, new Comparator<Map<String, Integer>>() {
+            @Override
+            public int compare(Map<String, Integer> first, Map<String, Integer> second) {
+                return Integer.compare(first.size(), second.size());
+            }
+        });
+
+        final List<Hit> hits = new ArrayList<>(termPostings.get(0).size());
+        candidates:
+        for (String tourIdentifier : termPostings.get(0).keySet()) {
+            double score = 0;
+            for (Map<String, Integer> posting : termPostings) {
+                final Integer frequency = posting.get(tourIdentifier);
+                if (frequency == null) {
+                    continue candidates;
+                }
+                score += frequency * Math.log(1 + (double) size / posting.size());
+            }
+            hits.add(new Hit(tourIdentifier, score));
+        }
+        Collections.sort(hits);
+
+        final List<String> identifiers = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            identifiers.add(hit.tourIdentifier);
+        }
+        return identifiers;
+    }
+
+    /**
+     * Splits the given text into lower-cased words without diacritics, as of the given locale.
+     */
+    static List<String> tokenize(String text, Locale locale) {
+        if (StringUtils.isBlank(text)) {
+            return Collections.emptyList();
+        }
+        final String lowerCase = text.toLowerCase(locale);
+        final String normalized = StringUtils.isAsciiPrintable(lowerCase) ? lowerCase : DIACRITICS.matcher(Normalizer.normalize(lowerCase, Normalizer.Form.NFD)).replaceAll("");
+        final BreakIterator words = BreakIterator.getWordInstance(locale);
+        words.setText(normalized);
+
+        final List<String> tokens = new ArrayList<>();
+        for (int start = words.first(), end = words.next(); end != BreakIterator.DONE; start = end, end = words.next()) {
+            if (Character.isLetterOrDigit(normalized.codePointAt(start))) {
+                tokens.add(normalized.substring(start, end));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the plain text of the given rich text, without markup and unresolved <code>${link:...}</code> links.
+     */
+    static String getText(String html) {
+        if (html == null) {
+            return null;
+        }
+        final String text = TAGS.matcher(LINKS.matcher(html).replaceAll(" ")).replaceAll(" ");
+        return text.indexOf('&') >= 0 ? StringEscapeUtils.unescapeHtml4(text) : text;
+    }
+
+    private static int getShard(String term) {
+        return Math.floorMod(term.hashCode(), SHARDS);
+    }
+
+    /**
+     * A matching tour and its score; orders best first.
+     */
+    private static final class Hit implements Comparable<Hit> {
+
+        private final String tourIdentifier;
+        private final double score;
+
+        private Hit(String tourIdentifier, double score) {
+            this.tourIdentifier = tourIdentifier;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            final int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : tourIdentifier.compareTo(other.tourIdentifier);
+        }
+    }
+
+    /**
+     * Creates a new {@link SearchIndex} from an existing one, copying shards and postings on first change.
+     *
+     * <p>The categories passed in must be the ones the existing index was built with: terms of a previous tour entry
+     * are re-computed to remove it.</p>
+     */
+    static final class Builder {
+
+        private final Locale locale;
+        private final Map<String, CategoryEntry> categories;
+        private final List<Map<String, Map<String, Integer>>> shards;
+        private final Set<Map<String, Map<String, Integer>>> copiedShards = Collections.newSetFromMap(new IdentityHashMap<Map<String, Map<String, Integer>>, Boolean>());
+        private final Set<Map<String, Integer>> copied = Collections.newSetFromMap(new IdentityHashMap<Map<String, Integer>, Boolean>());
+        private int size;
+
+        Builder(SearchIndex index, Map<String, CategoryEntry> categories) {
+            this.locale = index.locale;
+            this.categories = categories;
+            this.shards = new ArrayList<>(index.shards);
+            this.size = index.size;
+        }
+
+        /**
+         * Replaces the <code>previous</code> terms of a tour with its <code>current</code> ones; either of them may
+         * be <code>null</code> for added or removed tours.
+         */
+        void update(TourEntry previous, TourEntry current) {
+            if (previous != null) {
+                for (String term : getFrequencies(previous).keySet()) {
+                    final Map<String, Integer> posting = getPosting(term);
+                    posting.remove(previous.getIdentifier());
+                    if (posting.isEmpty()) {
+                        getTerms(term).remove(term);
+                    }
+                }
+                size--;
+            }
+            if (current != null) {
+                for (Map.Entry<String, Integer> frequency : getFrequencies(current).entrySet()) {
+                    getPosting(frequency.getKey()).put(current.getIdentifier(), frequency.getValue());
+                }
+                size++;
+            }
+        }
+
+        SearchIndex build() {
+            return new SearchIndex(locale, shards, size);
+        }
+
+        private Map<String, Integer> getFrequencies(TourEntry tour) {
+            final Map<String, Integer> frequencies = new HashMap<>();
+            addTerms(frequencies, tour.getName(), NAME_WEIGHT);
+            addTerms(frequencies, tour.getLocation(), LOCATION_WEIGHT);
+            for (String categoryPropertyName : TourCatalogue.CATEGORY_PROPERTY_NAMES) {
+                final List<String> categoryIdentifiers = tour.getCategoryIdentifiers(categoryPropertyName);
+                for (String categoryIdentifier : categoryIdentifiers != null ? categoryIdentifiers : Collections.<String>emptyList()) {
+                    final CategoryEntry category = categories.get(categoryIdentifier);
+                    if (category != null) {
+                        addTerms(frequencies, category.getName(), CATEGORY_WEIGHT);
+                    }
+                }
+            }
+            addTerms(frequencies, tour.getDescription(), DESCRIPTION_WEIGHT);
+            addTerms(frequencies, getText(tour.getBody()), BODY_WEIGHT);
+            return frequencies;
+        }
+
+        private void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+            for (String term : tokenize(text, locale)) {
+                final Integer frequency = frequencies.get(term);
+                frequencies.put(term, frequency != null ? frequency + weight : weight);
+            }
+        }
+
+        private Map<String, Integer> getPosting(String term) {
+            Map<String, Integer> posting = shards.get(getShard(term)).get(term);
+            if (posting == null || !copied.contains(posting)) {
+                posting = posting == null ? new HashMap<String, Integer>() : new HashMap<>(posting);
+                copied.add(posting);
+                getTerms(term).put(term, posting);
+            }
+            return posting;
+        }
+
+        /**
+         * Returns the (copied) shard holding the given term.
+         */
+        private Map<String, Map<String, Integer>> getTerms(String term) {
+            final int shard = getShard(term);
+            Map<String, Map<String, Integer>> terms = shards.get(shard);
+            if (!copiedShards.contains(terms)) {
+                terms = new HashMap<>(terms);
+                copiedShards.add(terms);
+                shards.set(shard, terms);
+            }
+            return terms;
+        }
+    }
+}
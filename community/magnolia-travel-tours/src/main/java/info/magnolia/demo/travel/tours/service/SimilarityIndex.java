@@ -0,0 +1,262 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.demo.travel.tours.service.TourCatalogue.TourEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks the tours of a {@link TourCatalogue.Snapshot} by the weighted number of categories they share with a given
+ * tour, per category property (e.g. tour types and destinations).
+ *
+ * <p>Category memberships are kept as bitsets, one per tour and category property, laid out back to back in a single
+ * <code>long[]</code> per property. Candidates are enumerated from the postings (tour ordinals) of the categories of
+ * the given tour only, scored once each by intersecting bitsets, and the best ones are kept in a bounded heap of
+ * primitive <code>long</code>s; ranking thus costs in the number of tours sharing a category rather than in the size
+ * of the catalogue, and neither allocates per candidate nor marshals anything.</p>
+ */
+final class SimilarityIndex {
+
+    private final String[] tourIdentifiers;
+    private final Map<String, Integer> ordinals;
+    private final int[] words;
+    private final long[][] memberships;
+    private final int[][][] postings;
+
+    private SimilarityIndex(String[] tourIdentifiers, Map<String, Integer> ordinals, int[] words, long[][] memberships, int[][][] postings) {
+        this.tourIdentifiers = tourIdentifiers;
+        this.ordinals = ordinals;
+        this.words = words;
+        this.memberships = memberships;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the bitsets of the given tours for the given category properties; weights passed to
+     * {@link #getMostSimilar(String, int[], int)} are in the same order as <code>categoryPropertyNames</code>.
+     */
+    static SimilarityIndex build(Collection<TourEntry> tours, Collection<String> categoryPropertyNames) {
+        final String[] tourIdentifiers = new String[tours.size()];
+        final Map<String, Integer> ordinals = new HashMap<>(tours.size() * 2);
+        final int[] words = new int[categoryPropertyNames.size()];
+        final long[][] memberships = new long[categoryPropertyNames.size()][];
+        final int[][][] postings = new int[categoryPropertyNames.size()][][];
+
+        int ordinal = 0;
+        for (TourEntry tour : tours) {
+            tourIdentifiers[ordinal] = tour.getIdentifier();
+            ordinals.put(tour.getIdentifier(), ordinal++);
+        }
+
+        int property = 0;
+        for (String categoryPropertyName : categoryPropertyNames) {
+            final Map<String, Integer> categoryBits = new HashMap<>();
+            for (TourEntry tour : tours) {
+                for (String categoryIdentifier : getCategoryIdentifiers(tour, categoryPropertyName)) {
+                    if (!categoryBits.containsKey(categoryIdentifier)) {
+                        categoryBits.put(categoryIdentifier, categoryBits.size());
+                    }
+                }
+            }
+
+            final int propertyWords = Math.max(1, (categoryBits.size() + Long.SIZE - 1) / Long.SIZE);
+            final long[] bits = new long[tourIdentifiers.length * propertyWords];
+            final int[] postingSizes = new int[categoryBits.size()];
+            ordinal = 0;
+            for (TourEntry tour : tours) {
+                for (String categoryIdentifier : getCategoryIdentifiers(tour, categoryPropertyName)) {
+                    final int bit = categoryBits.get(categoryIdentifier);
+                    final long mask = 1L << (bit % Long.SIZE);
+                    final int word = ordinal * propertyWords + bit / Long.SIZE;
+                    if ((bits[word] & mask) == 0) {
+                        bits[word] |= mask;
+                        postingSizes[bit]++;
+                    }
+                }
+                ordinal++;
+            }
+
+            final int[][] propertyPostings = new int[categoryBits.size()][];
+            for (int bit = 0; bit < propertyPostings.length; bit++) {
+                propertyPostings[bit] = new int[postingSizes[bit]];
+                postingSizes[bit] = 0;
+            }
+            for (ordinal = 0; ordinal < tourIdentifiers.length; ordinal++) {
+                for (int word = 0; word < propertyWords; word++) {
+                    long remaining = bits[ordinal * propertyWords + word];
+                    while (remaining != 0) {
+                        final int bit = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+                        propertyPostings[bit][postingSizes[bit]++] = ordinal;
+                        remaining &= remaining - 1;
+                    }
+                }
+            }
+
+            words[property] = propertyWords;
+            memberships[property] = bits;
+            postings[property++] = propertyPostings;
+        }
+
+        return new SimilarityIndex(tourIdentifiers, ordinals, words, memberships, postings);
+    }
+
+    /**
+     * Returns the identifiers of at most <code>maxTours</code> tours sharing categories with the given tour, best
+     * first. A candidate scores the sum over all category properties of <code>weights[property]</code> times the
+     * number of categories it shares with the tour under that property; ties keep the catalogue order.
+     */
+    List<String> getMostSimilar(String tourIdentifier, int[] weights, int maxTours) {
+        final Integer tourOrdinal = ordinals.get(tourIdentifier);
+        if (tourOrdinal == null || maxTours <= 0) {
+            return Collections.emptyList();
+        }
+
+        final long[] heap = new long[Math.min(maxTours, tourIdentifiers.length)];
+        final long[] visited = new long[(tourIdentifiers.length + Long.SIZE - 1) / Long.SIZE];
+        visited[tourOrdinal / Long.SIZE] |= 1L << (tourOrdinal % Long.SIZE);
+        int size = 0;
+
+        for (int property = 0; property < memberships.length; property++) {
+            if (weights[property] <= 0) {
+                continue;
+            }
+            final int propertyWords = words[property];
+            for (int word = 0; word < propertyWords; word++) {
+                long categories = memberships[property][tourOrdinal * propertyWords + word];
+                while (categories != 0) {
+                    final int[] posting = postings[property][word * Long.SIZE + Long.numberOfTrailingZeros(categories)];
+                    categories &= categories - 1;
+
+                    for (int candidate : posting) {
+                        final long mask = 1L << (candidate % Long.SIZE);
+                        if ((visited[candidate / Long.SIZE] & mask) != 0) {
+                            continue;
+                        }
+                        visited[candidate / Long.SIZE] |= mask;
+
+                        // Higher scores rank first, then lower ordinals.
+                        final long rank = ((long) getScore(tourOrdinal, candidate, weights) << Integer.SIZE) | (Integer.MAX_VALUE - candidate);
+                        if (size < heap.length) {
+                            heap[size] = rank;
+                            siftUp(heap, size++);
+                        } else if (rank > heap[0]) {
+                            heap[0] = rank;
+                            siftDown(heap, size);
+                        }
+                    }
+                }
+            }
+        }
+
+        Arrays.sort(heap, 0, size);
+        final List<String> identifiers = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            identifiers.add(tourIdentifiers[Integer.MAX_VALUE - (int) heap[i]]);
+        }
+        return identifiers;
+    }
+
+    /**
+     * Sums the weighted numbers of categories the two tours share per category property.
+     */
+    private int getScore(int tourOrdinal, int candidate, int[] weights) {
+        int score = 0;
+        for (int property = 0; property < memberships.length; property++) {
+            if (weights[property] <= 0) {
+                continue;
+            }
+            final long[] bits = memberships[property];
+            final int propertyWords = words[property];
+            final int tourOffset = tourOrdinal * propertyWords;
+            final int candidateOffset = candidate * propertyWords;
+            int shared = 0;
+            for (int word = 0; word < propertyWords; word++) {
+                shared += Long.bitCount(bits[tourOffset + word] & bits[candidateOffset + word]);
+            }
+            score += weights[property] * shared;
+        }
+        return score;
+    }
+
+    private static List<String> getCategoryIdentifiers(TourEntry tour, String categoryPropertyName) {
+        final List<String> categoryIdentifiers = tour.getCategoryIdentifiers(categoryPropertyName);
+        return categoryIdentifiers != null ? categoryIdentifiers : Collections.<String>emptyList();
+    }
+
+    /**
+     * Restores the min-heap order after adding the element at <code>index</code>.
+     */
+    private static void siftUp(long[] heap, int index) {
+        final long value = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Restores the min-heap order of the first <code>size</code> elements after replacing the smallest one.
+     */
+    private static void siftDown(long[] heap, int size) {
+        final long value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.jcr.util.NodeUtil;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the content nodes of a workspace by their name (the slug used in URLs), replacing a
+ * <code>name(content)='...'</code> query per lookup.
+ *
+ * <p>The index is read lazily on first lookup. Added, removed and moved (thus renamed) nodes are recorded by an
+ * observation listener and applied on next lookup.</p>
+ *
+ * <p>The index is shared by all users and thus read with the system context; callers read the indexed node with their
+ * own session, so access control still applies to it.</p>
+ */
+public class SlugIndex extends ObservedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SlugIndex.class);
+
+    private final String workspace;
+
+    private volatile ConcurrentMap<String, Set<String>> identifiersBySlug = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<String, String> slugsByIdentifier = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> changedNodes = new ConcurrentLinkedQueue<>();
+    private final AtomicLong generation = new AtomicLong(1);
+    private volatile long builtGeneration;
+
+    public SlugIndex(String workspace) {
+        this.workspace = workspace;
+        observe(workspace, new SlugEventListener());
+    }
+
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    /**
+     * Returns the identifier of the content node with the given name or <code>null</code> if there is none. If
+     * several nodes share the name, the first one indexed wins.
+     */
+    public String getIdentifier(String slug) throws RepositoryException {
+        if (builtGeneration != generation.get() || !changedNodes.isEmpty()) {
+            update();
+        }
+
+        final Set<String> identifiers = identifiersBySlug.get(slug);
+        if (identifiers != null) {
+            for (String identifier : identifiers) {
+                return identifier;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks the node with the given identifier as added, removed or renamed; it will be re-read on next lookup.
+     */
+    void recordChange(String identifier) {
+        if (identifier != null) {
+            changedNodes.add(identifier);
+        }
+    }
+
+    /**
+     * Discards the index; it is read again on next lookup.
+     */
+    @Override
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private synchronized void update() throws RepositoryException {
+        final Session session = MgnlContext.getSystemContext().getJCRSession(workspace);
+
+        final long current = generation.get();
+        if (builtGeneration != current) {
+            // Lookups keep using the previous maps until the new ones are complete
+            final ConcurrentMap<String, Set<String>> newIdentifiersBySlug = new ConcurrentHashMap<>();
+            final ConcurrentMap<String, String> newSlugsByIdentifier = new ConcurrentHashMap<>();
+            changedNodes.clear();
+            index(session.getRootNode(), newIdentifiersBySlug, newSlugsByIdentifier);
+            identifiersBySlug = newIdentifiersBySlug;
+            slugsByIdentifier = newSlugsByIdentifier;
+            builtGeneration = current;
+            log.debug("Indexed {} slugs of workspace [{}].", identifiersBySlug.size(), workspace);
+            return;
+        }
+
+        String identifier;
+        while ((identifier = changedNodes.poll()) != null) {
+            remove(identifier);
+            try {
+                final Node node = session.getNodeByIdentifier(identifier);
+                if (isIndexed(node)) {
+                    add(node, identifiersBySlug, slugsByIdentifier);
+                }
+            } catch (ItemNotFoundException e) {
+                // Removed node, nothing to add
+            }
+        }
+    }
+
+    private static void index(Node parent, ConcurrentMap<String, Set<String>> identifiersBySlug, ConcurrentMap<String, String> slugsByIdentifier) throws RepositoryException {
+        for (Node child : NodeUtil.getNodes(parent, NodeUtil.MAGNOLIA_FILTER)) {
+            if (isIndexed(child)) {
+                add(child, identifiersBySlug, slugsByIdentifier);
+            }
+            index(child, identifiersBySlug, slugsByIdentifier);
+        }
+    }
+
+    private static void add(Node node, ConcurrentMap<String, Set<String>> identifiersBySlug, ConcurrentMap<String, String> slugsByIdentifier) throws RepositoryException {
+        final String identifier = node.getIdentifier();
+        final String slug = node.getName();
+        Set<String> identifiers = identifiersBySlug.get(slug);
+        if (identifiers == null) {
+            identifiers = new CopyOnWriteArraySet<>();
+            identifiersBySlug.put(slug, identifiers);
+        }
+        identifiers.add(identifier);
+        slugsByIdentifier.put(identifier, slug);
+    }
+
+    private void remove(String identifier) {
+        final String slug = slugsByIdentifier.remove(identifier);
+        if (slug != null) {
+            final Set<String> identifiers = identifiersBySlug.get(slug);
+            if (identifiers != null) {
+                identifiers.remove(identifier);
+                if (identifiers.isEmpty()) {
+                    identifiersBySlug.remove(slug);
+                }
+            }
+        }
+    }
+
+    private static boolean isIndexed(Node node) throws RepositoryException {
+        return node.isNodeType(NodeTypes.Content.NAME);
+    }
+
+    /**
+     * Records added, removed and moved nodes; property changes don't affect slugs.
+     */
+    private class SlugEventListener implements EventListener {
+
+        @Override
+        public void onEvent(EventIterator events) {
+            try {
+                while (events.hasNext()) {
+                    final Event event = events.nextEvent();
+                    if (event.getType() == Event.NODE_ADDED || event.getType() == Event.NODE_REMOVED || event.getType() == Event.NODE_MOVED) {
+                        recordChange(event.getIdentifier());
+                    }
+                }
+            } catch (RepositoryException e) {
+                log.warn("Could not process changes of workspace [{}], rebuilding its slug index.", workspace, e);
+                invalidate();
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.dam.jcr.DamConstants;
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.link.LinkUtil;
+import info.magnolia.repository.RepositoryConstants;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tour bodies with resolved links, per tour identifier, locale and <code>mgnl:lastModified</code> of the tour.
+ *
+ * <p>A resolved body is dropped when the tour or one of the nodes it links to changes. Moves change the paths of whole
+ * subtrees and thus drop all bodies.</p>
+ */
+public class TourBodyCache extends ObservedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TourBodyCache.class);
+
+    private final ConcurrentMap<String, ResolvedBody> bodies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> keysByTarget = new ConcurrentHashMap<>();
+
+    public TourBodyCache() {
+        for (String workspace : new String[]{ToursModule.TOURS_REPOSITORY_NAME, RepositoryConstants.WEBSITE, DamConstants.WORKSPACE}) {
+            observe(workspace, new TargetEventListener());
+        }
+    }
+
+    /**
+     * Returns the resolved body of the given version of a tour or <code>null</code> if it has not been resolved yet.
+     */
+    public String get(String tourIdentifier, Locale locale, long lastModified) {
+        final ResolvedBody resolvedBody = bodies.get(getKey(tourIdentifier, locale));
+        return resolvedBody != null && resolvedBody.lastModified == lastModified ? resolvedBody.body : null;
+    }
+
+    /**
+     * Stores the resolved body of a tour; <code>body</code> is the unresolved one from which the link targets are read.
+     */
+    public void put(String tourIdentifier, Locale locale, long lastModified, String body, String resolvedBody) {
+        final String key = getKey(tourIdentifier, locale);
+        bodies.put(key, new ResolvedBody(lastModified, resolvedBody));
+
+        addTarget(tourIdentifier, key);
+        final Matcher matcher = LinkUtil.UUID_PATTERN.matcher(body);
+        while (matcher.find()) {
+            addTarget(matcher.group(1), key);
+        }
+    }
+
+    /**
+     * Drops the bodies of the tour with the given identifier and of all tours linking to it.
+     */
+    public void invalidateTarget(String identifier) {
+        final Set<String> keys = keysByTarget.remove(identifier);
+        if (keys != null) {
+            for (String key : keys) {
+                bodies.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        bodies.clear();
+        keysByTarget.clear();
+    }
+
+    private void addTarget(String identifier, String key) {
+        Set<String> keys = keysByTarget.get(identifier);
+        if (keys == null) {
+            final Set<String> newKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            keys = keysByTarget.putIfAbsent(identifier, newKeys);
+            if (keys == null) {
+                keys = newKeys;
+            }
+        }
+        keys.add(key);
+    }
+
+    private static String getKey(String tourIdentifier, Locale locale) {
+        return tourIdentifier + "|" + locale;
+    }
+
+    /**
+     * A resolved body along with the version of the tour it was resolved from.
+     */
+    private static final class ResolvedBody {
+
+        private final long lastModified;
+        private final String body;
+
+        private ResolvedBody(long lastModified, String body) {
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Drops the bodies of changed tours and of tours linking to changed nodes.
+     */
+    private class TargetEventListener implements EventListener {
+
+        @Override
+        public void onEvent(EventIterator events) {
+            try {
+                final Set<String> identifiers = new LinkedHashSet<>();
+                while (events.hasNext()) {
+                    final Event event = events.nextEvent();
+                    if (event.getType() == Event.NODE_MOVED) {
+                        invalidate();
+                        return;
+                    }
+                    if (event.getIdentifier() != null) {
+                        identifiers.add(event.getIdentifier());
+                    }
+                }
+                for (String identifier : identifiers) {
+                    invalidateTarget(identifier);
+                }
+            } catch (RepositoryException e) {
+                log.warn("Could not process changes of link targets, dropping all resolved tour bodies.", e);
+                invalidate();
+            }
+        }
+    }
+}
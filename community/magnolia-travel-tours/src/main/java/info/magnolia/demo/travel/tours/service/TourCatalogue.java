@@ -0,0 +1,770 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.jcr.util.NodeUtil;
+import info.magnolia.module.categorization.CategorizationModule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory catalogue of the tours and categories served by {@link TourServices}.
+ *
+ * <p>Once the catalogue is started, snapshots are read lazily once per locale and then kept in memory. Changes in
+ * the <code>tours</code> workspace are recorded by an observation listener and patched into the existing snapshots
+ * (and their category and search indexes) on next access, whereas changes in the <code>category</code> workspace (or
+ * moves of tour nodes) make the catalogue rebuild itself.</p>
+ *
+ * <p>Entries only hold detached values (strings, identifiers and asset keys): JCR nodes and DAM assets are bound to
+ * the session they were read with and must not outlive the request. Links aren't kept either, as they depend on the
+ * site they are rendered for.</p>
+ *
+ * <p>Snapshots are shared by all users, so they are read with the sessions of the system context rather than with
+ * those of whichever request happens to read them first; access control of the <code>tours</code> and
+ * <code>category</code> workspaces thus doesn't apply to the catalogue. The {@link Loader} gets the locale of the
+ * snapshot passed rather than taking it from the current context, so that tours can be read in parallel by the
+ * threads of a {@link MarshallingExecutor} when the catalogue is started with some, each with its own sessions.</p>
+ */
+public class TourCatalogue extends ObservedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TourCatalogue.class);
+
+    static final String CATEGORY_NODE_TYPE = "mgnl:category";
+
+    /**
+     * Category properties of a tour for which memberships are kept in the catalogue.
+     */
+    static final Set<String> CATEGORY_PROPERTY_NAMES = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, Tour.PROPERTY_NAME_DESTINATION)));
+
+    /**
+     * Past this number of unapplied changes the catalogue is rather rebuilt than patched.
+     */
+    private static final int MAX_PENDING_CHANGES = 1000;
+
+    /**
+     * Number of tours read by each task of the {@link MarshallingExecutor}, i.e. with the same sessions.
+     */
+    private static final int TOURS_PER_TASK = 50;
+
+    private final Loader loader;
+    private final MarshallingExecutor executor = new MarshallingExecutor();
+
+    private final ConcurrentMap<Locale, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, String> changedTours = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long lastChange;
+    private volatile long rebuildBefore;
+
+    TourCatalogue(Loader loader) {
+        this.loader = loader;
+        observe(ToursModule.TOURS_REPOSITORY_NAME, new ToursEventListener());
+        invalidateOnChangesOf(CategorizationModule.CATEGORIZATION_WORKSPACE);
+    }
+
+    /**
+     * Returns an up-to-date {@link Snapshot} of the catalogue for the given locale, reading or patching it from the
+     * repository as needed.
+     *
+     * <p>Unless the catalogue is {@link #start() started}, nothing would tell it about changes, so a new snapshot is
+     * read on every call and none is kept.</p>
+     */
+    public Snapshot get(Locale locale) throws RepositoryException {
+        if (!isStarted()) {
+            return build(lastChange, locale);
+        }
+
+        final Snapshot snapshot = snapshots.get(locale);
+        if (snapshot != null && snapshot.getSequence() >= lastChange) {
+            return snapshot;
+        }
+
+        synchronized (this) {
+            final long current = lastChange;
+            Snapshot updated = snapshots.get(locale);
+            if (updated == null || updated.getSequence() < rebuildBefore) {
+                updated = build(current, locale);
+            } else if (updated.getSequence() < current) {
+                updated = patch(updated, current);
+            }
+            snapshots.put(locale, updated);
+            trimChanges();
+            return updated;
+        }
+    }
+
+    /**
+     * Starts the catalogue, reading tours with the given number of threads when building snapshots; serially if it is
+     * not positive.
+     */
+    public synchronized void start(int marshallingThreads) {
+        start();
+        executor.start(marshallingThreads);
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        executor.stop();
+    }
+
+    /**
+     * Marks the tour with the given identifier as changed; it will be re-read on next access.
+     */
+    void recordChange(String identifier) {
+        if (identifier == null) {
+            return;
+        }
+        final long changeSequence = sequence.incrementAndGet();
+        changedTours.put(changeSequence, identifier);
+        lastChange = changeSequence;
+        if (changedTours.size() > MAX_PENDING_CHANGES) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Discards all snapshots; the catalogue is rebuilt on next access.
+     */
+    @Override
+    public void invalidate() {
+        final long changeSequence = sequence.incrementAndGet();
+        rebuildBefore = changeSequence;
+        lastChange = changeSequence;
+        changedTours.headMap(changeSequence).clear();
+        snapshots.clear();
+    }
+
+    private Snapshot build(long current, Locale locale) throws RepositoryException {
+        final Map<String, CategoryEntry> categories = new LinkedHashMap<>();
+        final Map<String, CategoryEntry> categoriesByNodeName = new HashMap<>();
+        for (Node categoryNode : collect(MgnlContext.getSystemContext().getJCRSession(CategorizationModule.CATEGORIZATION_WORKSPACE).getRootNode(), false)) {
+            final CategoryEntry category = loader.loadCategory(categoryNode, locale);
+            categories.put(category.getIdentifier(), category);
+            if (!categoriesByNodeName.containsKey(category.getNodeName())) {
+                categoriesByNodeName.put(category.getNodeName(), category);
+            }
+        }
+
+        final Map<String, TourEntry> tours = new LinkedHashMap<>();
+        final List<Node> tourNodes = collect(MgnlContext.getSystemContext().getJCRSession(ToursModule.TOURS_REPOSITORY_NAME).getRootNode(), true);
+        if (executor.isEnabled()) {
+            for (TourEntry tour : loadTours(tourNodes, locale)) {
+                tours.put(tour.getIdentifier(), tour);
+            }
+        } else {
+            for (Node tourNode : tourNodes) {
+                final TourEntry tour = loader.loadTour(tourNode, locale);
+                tours.put(tour.getIdentifier(), tour);
+            }
+        }
+
+        final CategoryIndex.Builder index = new CategoryIndex.Builder(CategoryIndex.EMPTY);
+        for (TourEntry tour : tours.values()) {
+            index.update(null, tour);
+        }
+
+        log.debug("Read {} tours and {} categories into the tour catalogue.", tours.size(), categories.size());
+        return new Snapshot(current, locale, tours, categories, categoriesByNodeName, index.build(), null);
+    }
+
+    private Snapshot patch(Snapshot snapshot, long current) throws RepositoryException {
+        final Set<String> identifiers = new LinkedHashSet<>(changedTours.subMap(snapshot.getSequence(), false, current, true).values());
+        final Map<String, TourEntry> tours = new LinkedHashMap<>(snapshot.tours);
+        final CategoryIndex.Builder index = new CategoryIndex.Builder(snapshot.index);
+        final SearchIndex.Builder searchIndex = snapshot.searchIndex != null ? new SearchIndex.Builder(snapshot.searchIndex, snapshot.categories) : null;
+        final Session session = MgnlContext.getSystemContext().getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
+
+        for (String identifier : identifiers) {
+            TourEntry tour = null;
+            try {
+                final Node node = session.getNodeByIdentifier(identifier);
+                if (isTourNode(node)) {
+                    tour = loader.loadTour(node, snapshot.locale);
+                }
+            } catch (ItemNotFoundException e) {
+                // Removed tour
+            }
+
+            final TourEntry previous = tour != null ? tours.put(identifier, tour) : tours.remove(identifier);
+            index.update(previous, tour);
+            if (searchIndex != null) {
+                searchIndex.update(previous, tour);
+            }
+        }
+
+        log.debug("Patched {} changed tours into the tour catalogue.", identifiers.size());
+        return new Snapshot(current, snapshot.locale, tours, snapshot.categories, snapshot.categoriesByNodeName, index.build(), searchIndex != null ? searchIndex.build() : null);
+    }
+
+    /**
+     * Re-reads the given tour nodes on the {@link MarshallingExecutor}, {@value #TOURS_PER_TASK} per task and in the
+     * sessions of the task; tours which can't be read are logged and left out.
+     */
+    private List<TourEntry> loadTours(List<Node> tourNodes, final Locale locale) throws RepositoryException {
+        final List<String> identifiers = new ArrayList<>(tourNodes.size());
+        for (Node tourNode : tourNodes) {
+            identifiers.add(tourNode.getIdentifier());
+        }
+
+        final List<Callable<List<TourEntry>>> tasks = new ArrayList<>();
+        for (int from = 0; from < identifiers.size(); from += TOURS_PER_TASK) {
+            final List<String> chunk = identifiers.subList(from, Math.min(from + TOURS_PER_TASK, identifiers.size()));
+            tasks.add(new Callable<List<TourEntry>>() {
+                @Override
+                public List<TourEntry> call() throws RepositoryException {
+                    final Session session = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
+                    final List<TourEntry> entries = new ArrayList<>(chunk.size());
+                    for (String identifier : chunk) {
+                        try {
+                            entries.add(loader.loadTour(session.getNodeByIdentifier(identifier), locale));
+                        } catch (RepositoryException | RuntimeException e) {
+                            log.warn("Could not read tour [{}] into the tour catalogue.", identifier, e);
+                        }
+                    }
+                    return entries;
+                }
+            });
+        }
+
+        final List<TourEntry> tours = new ArrayList<>(identifiers.size());
+        for (List<TourEntry> entries : executor.invokeAll(tasks)) {
+            tours.addAll(entries);
+        }
+        return tours;
+    }
+
+    private void trimChanges() {
+        long oldest = lastChange;
+        for (Snapshot snapshot : snapshots.values()) {
+            oldest = Math.min(oldest, snapshot.getSequence());
+        }
+        changedTours.headMap(oldest, true).clear();
+    }
+
+    private static List<Node> collect(Node root, boolean tours) throws RepositoryException {
+        final List<Node> nodes = new ArrayList<>();
+        collect(root, tours, nodes);
+        return nodes;
+    }
+
+    private static void collect(Node parent, boolean tours, List<Node> nodes) throws RepositoryException {
+        for (Node child : NodeUtil.getNodes(parent, NodeUtil.MAGNOLIA_FILTER)) {
+            if (tours ? isTourNode(child) : child.isNodeType(CATEGORY_NODE_TYPE)) {
+                nodes.add(child);
+            }
+            collect(child, tours, nodes);
+        }
+    }
+
+    static boolean isTourNode(Node node) throws RepositoryException {
+        return node.isNodeType(NodeTypes.Content.NAME) && !node.isNodeType(NodeTypes.Folder.NAME);
+    }
+
+    /**
+     * Reads catalogue entries from repository nodes in the given locale. Tours may be read on the threads of a
+     * {@link MarshallingExecutor}, without the context of a request.
+     */
+    interface Loader {
+
+        TourEntry loadTour(Node tourNode, Locale locale) throws RepositoryException;
+
+        CategoryEntry loadCategory(Node categoryNode, Locale locale) throws RepositoryException;
+    }
+
+    /**
+     * Immutable view of the catalogue for one locale.
+     */
+    public static final class Snapshot {
+
+        private final long sequence;
+        private final Locale locale;
+        private final Map<String, TourEntry> tours;
+        private final Map<String, CategoryEntry> categories;
+        private final Map<String, CategoryEntry> categoriesByNodeName;
+        private final CategoryIndex index;
+        private volatile SimilarityIndex similarityIndex;
+        private volatile SearchIndex searchIndex;
+
+        Snapshot(long sequence, Locale locale, Map<String, TourEntry> tours, Map<String, CategoryEntry> categories, Map<String, CategoryEntry> categoriesByNodeName, CategoryIndex index, SearchIndex searchIndex) {
+            this.sequence = sequence;
+            this.locale = locale;
+            this.tours = Collections.unmodifiableMap(tours);
+            this.categories = Collections.unmodifiableMap(categories);
+            this.categoriesByNodeName = Collections.unmodifiableMap(categoriesByNodeName);
+            this.index = index;
+            this.searchIndex = searchIndex;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        public TourEntry getTour(String identifier) {
+            return tours.get(identifier);
+        }
+
+        public Collection<TourEntry> getTours() {
+            return tours.values();
+        }
+
+        /**
+         * Returns the identifiers of the tours referencing the given category under the given category property,
+         * optionally only the featured ones.
+         */
+        public Set<String> getTourIdentifiers(String categoryPropertyName, String categoryIdentifier, boolean featured) {
+            return index.get(categoryPropertyName, categoryIdentifier, featured);
+        }
+
+        /**
+         * Returns the tours referencing the given category under the given category property, optionally only the
+         * featured ones.
+         */
+        public List<TourEntry> getTours(String categoryPropertyName, String categoryIdentifier, boolean featured) {
+            final Set<String> identifiers = getTourIdentifiers(categoryPropertyName, categoryIdentifier, featured);
+            final List<TourEntry> entries = new ArrayList<>(identifiers.size());
+            for (String identifier : identifiers) {
+                entries.add(tours.get(identifier));
+            }
+            return entries;
+        }
+
+        public CategoryEntry getCategory(String identifier) {
+            return categories.get(identifier);
+        }
+
+        /**
+         * Returns the category with the given node name (the slug used in URLs); if several categories share the
+         * name, the first one read wins.
+         */
+        public CategoryEntry getCategoryByNodeName(String nodeName) {
+            return categoriesByNodeName.get(nodeName);
+        }
+
+        public Collection<CategoryEntry> getCategories() {
+            return categories.values();
+        }
+
+        /**
+         * Returns the {@link SimilarityIndex} over the category memberships of this snapshot, built on first use.
+         */
+        SimilarityIndex getSimilarityIndex() {
+            SimilarityIndex similarity = similarityIndex;
+            if (similarity == null) {
+                similarity = SimilarityIndex.build(tours.values(), CATEGORY_PROPERTY_NAMES);
+                similarityIndex = similarity;
+            }
+            return similarity;
+        }
+
+        /**
+         * Returns the {@link SearchIndex} over the texts of this snapshot, built on first use; once built, it is
+         * patched along with the snapshot.
+         */
+        SearchIndex getSearchIndex() {
+            SearchIndex search = searchIndex;
+            if (search == null) {
+                search = SearchIndex.build(tours.values(), categories, locale);
+                searchIndex = search;
+            }
+            return search;
+        }
+    }
+
+    /**
+     * Inverted index from category identifiers to the identifiers of the tours referencing them, per category
+     * property; featured tours are additionally kept in a separate index.
+     *
+     * <p>Postings are never modified once built: a {@link Builder} copies the outer maps and only the postings it
+     * changes, so patching a snapshot costs in the number of changed tours rather than in the size of the catalogue.</p>
+     */
+    static final class CategoryIndex {
+
+        static final CategoryIndex EMPTY = new CategoryIndex(new HashMap<String, Map<String, Set<String>>>(), new HashMap<String, Map<String, Set<String>>>());
+
+        private final Map<String, Map<String, Set<String>>> tours;
+        private final Map<String, Map<String, Set<String>>> featuredTours;
+
+        private CategoryIndex(Map<String, Map<String, Set<String>>> tours, Map<String, Map<String, Set<String>>> featuredTours) {
+            this.tours = tours;
+            this.featuredTours = featuredTours;
+        }
+
+        Set<String> get(String categoryPropertyName, String categoryIdentifier, boolean featured) {
+            final Map<String, Set<String>> postings = (featured ? featuredTours : tours).get(categoryPropertyName);
+            final Set<String> identifiers = postings != null ? postings.get(categoryIdentifier) : null;
+            return identifiers != null ? Collections.unmodifiableSet(identifiers) : Collections.<String>emptySet();
+        }
+
+        /**
+         * Creates a new {@link CategoryIndex} from an existing one, copying postings on first change.
+         */
+        static final class Builder {
+
+            private final Map<String, Map<String, Set<String>>> tours;
+            private final Map<String, Map<String, Set<String>>> featuredTours;
+            private final Set<Set<String>> copied = Collections.newSetFromMap(new IdentityHashMap<Set<String>, Boolean>());
+
+            Builder(CategoryIndex index) {
+                this.tours = copy(index.tours);
+                this.featuredTours = copy(index.featuredTours);
+            }
+
+            /**
+             * Moves a tour from its <code>previous</code> to its <code>current</code> memberships; either of them may
+             * be <code>null</code> for added or removed tours.
+             */
+            void update(TourEntry previous, TourEntry current) {
+                for (String categoryPropertyName : CATEGORY_PROPERTY_NAMES) {
+                    final Collection<String> before = getCategoryIdentifiers(previous, categoryPropertyName, false);
+                    final Collection<String> after = getCategoryIdentifiers(current, categoryPropertyName, false);
+                    update(tours, categoryPropertyName, previous != null ? previous : current, before, after);
+
+                    final Collection<String> featuredBefore = getCategoryIdentifiers(previous, categoryPropertyName, true);
+                    final Collection<String> featuredAfter = getCategoryIdentifiers(current, categoryPropertyName, true);
+                    update(featuredTours, categoryPropertyName, previous != null ? previous : current, featuredBefore, featuredAfter);
+                }
+            }
+
+            CategoryIndex build() {
+                return new CategoryIndex(tours, featuredTours);
+            }
+
+            private void update(Map<String, Map<String, Set<String>>> index, String categoryPropertyName, TourEntry tour, Collection<String> before, Collection<String> after) {
+                final Map<String, Set<String>> postings = index.get(categoryPropertyName);
+                for (String categoryIdentifier : before) {
+                    if (!after.contains(categoryIdentifier)) {
+                        final Set<String> identifiers = getPosting(postings, categoryIdentifier);
+                        identifiers.remove(tour.getIdentifier());
+                        if (identifiers.isEmpty()) {
+                            postings.remove(categoryIdentifier);
+                        }
+                    }
+                }
+                for (String categoryIdentifier : after) {
+                    if (!before.contains(categoryIdentifier)) {
+                        getPosting(postings, categoryIdentifier).add(tour.getIdentifier());
+                    }
+                }
+            }
+
+            private Set<String> getPosting(Map<String, Set<String>> postings, String categoryIdentifier) {
+                Set<String> identifiers = postings.get(categoryIdentifier);
+                if (identifiers == null || !copied.contains(identifiers)) {
+                    identifiers = identifiers == null ? new LinkedHashSet<String>() : new LinkedHashSet<>(identifiers);
+                    copied.add(identifiers);
+                    postings.put(categoryIdentifier, identifiers);
+                }
+                return identifiers;
+            }
+
+            private static Collection<String> getCategoryIdentifiers(TourEntry tour, String categoryPropertyName, boolean featured) {
+                if (tour == null || (featured && !tour.isFeatured()) || tour.getCategoryIdentifiers(categoryPropertyName) == null) {
+                    return Collections.emptySet();
+                }
+                return new LinkedHashSet<>(tour.getCategoryIdentifiers(categoryPropertyName));
+            }
+
+            private static Map<String, Map<String, Set<String>>> copy(Map<String, Map<String, Set<String>>> index) {
+                final Map<String, Map<String, Set<String>>> copy = new HashMap<>();
+                for (String categoryPropertyName : CATEGORY_PROPERTY_NAMES) {
+                    final Map<String, Set<String>> postings = index.get(categoryPropertyName);
+                    copy.put(categoryPropertyName, postings != null ? new HashMap<>(postings) : new HashMap<String, Set<String>>());
+                }
+                return copy;
+            }
+        }
+    }
+
+    /**
+     * Detached values of a tour node; see {@link Tour} for the marshalled bean.
+     */
+    public static final class TourEntry {
+
+        private final String identifier;
+        private final String nodeName;
+        private final String path;
+        private String name;
+        private String description;
+        private String body;
+        private String author;
+        private String duration;
+        private String location;
+        private String imageKey;
+        private long lastModified;
+        private boolean featured;
+        private boolean links;
+        private final Map<String, List<String>> categoryIdentifiers = new LinkedHashMap<>();
+
+        TourEntry(String identifier, String nodeName, String path) {
+            this.identifier = identifier;
+            this.nodeName = nodeName;
+            this.path = path;
+            this.name = nodeName;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getNodeName() {
+            return nodeName;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        void setDescription(String description) {
+            this.description = description;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        void setBody(String body) {
+            this.body = body;
+        }
+
+        /**
+         * Whether the body contains links which need to be resolved.
+         */
+        public boolean hasLinks() {
+            return links;
+        }
+
+        void setLinks(boolean links) {
+            this.links = links;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        void setAuthor(String author) {
+            this.author = author;
+        }
+
+        public String getDuration() {
+            return duration;
+        }
+
+        void setDuration(String duration) {
+            this.duration = duration;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        void setLocation(String location) {
+            this.location = location;
+        }
+
+        public String getImageKey() {
+            return imageKey;
+        }
+
+        void setImageKey(String imageKey) {
+            this.imageKey = imageKey;
+        }
+
+        /**
+         * Returns the <code>mgnl:lastModified</code> date of the tour in milliseconds, or <code>0</code> if it has none.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        void setLastModified(long lastModified) {
+            this.lastModified = lastModified;
+        }
+
+        public boolean isFeatured() {
+            return featured;
+        }
+
+        void setFeatured(boolean featured) {
+            this.featured = featured;
+        }
+
+        /**
+         * Returns the identifiers of the categories stored under the given property or <code>null</code> if the tour
+         * has no such property.
+         */
+        public List<String> getCategoryIdentifiers(String categoryPropertyName) {
+            return categoryIdentifiers.get(categoryPropertyName);
+        }
+
+        void setCategoryIdentifiers(String categoryPropertyName, List<String> identifiers) {
+            categoryIdentifiers.put(categoryPropertyName, Collections.unmodifiableList(identifiers));
+        }
+    }
+
+    /**
+     * Detached values of a category node; see {@link Category} for the marshalled bean.
+     */
+    public static final class CategoryEntry {
+
+        private final String identifier;
+        private final String nodeName;
+        private String name;
+        private String description;
+        private String body;
+        private String imageKey;
+        private String iconKey;
+
+        CategoryEntry(String identifier, String nodeName) {
+            this.identifier = identifier;
+            this.nodeName = nodeName;
+            this.name = nodeName;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getNodeName() {
+            return nodeName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        void setDescription(String description) {
+            this.description = description;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        void setBody(String body) {
+            this.body = body;
+        }
+
+        public String getImageKey() {
+            return imageKey;
+        }
+
+        void setImageKey(String imageKey) {
+            this.imageKey = imageKey;
+        }
+
+        public String getIconKey() {
+            return iconKey;
+        }
+
+        void setIconKey(String iconKey) {
+            this.iconKey = iconKey;
+        }
+    }
+
+    /**
+     * Records changed tours; moves (which also include re-ordering) change paths and order of whole subtrees, so they
+     * cause a rebuild.
+     */
+    private class ToursEventListener implements EventListener {
+
+        @Override
+        public void onEvent(EventIterator events) {
+            try {
+                while (events.hasNext()) {
+                    final Event event = events.nextEvent();
+                    if (event.getType() == Event.NODE_MOVED) {
+                        invalidate();
+                        return;
+                    }
+                    recordChange(event.getIdentifier());
+                }
+            } catch (RepositoryException e) {
+                log.warn("Could not process tour changes, rebuilding the tour catalogue.", e);
+                invalidate();
+            }
+        }
+    }
+}
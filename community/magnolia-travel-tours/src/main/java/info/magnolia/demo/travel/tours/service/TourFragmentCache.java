@@ -0,0 +1,173 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import info.magnolia.dam.jcr.DamConstants;
+import info.magnolia.demo.travel.cache.ObservedCache;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.module.categorization.CategorizationModule;
+import info.magnolia.repository.RepositoryConstants;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rendered markup of tour fragments (e.g. teaser cards), per fragment name, tour identifier, site, locale and
+ * <code>mgnl:lastModified</code> of the tour, as used by
+ * {@link info.magnolia.demo.travel.tours.TourTemplatingFunctions#getTourFragment}.
+ *
+ * <p>The least recently used fragments are evicted beyond the {@link ToursModule#getFragmentCacheSize() configured}
+ * size. Fragments of a tour are dropped when it changes; changes of categories or assets, which any fragment may show,
+ * and of pages, which the tour and category overview links of any fragment point to, drop all fragments.</p>
+ */
+public class TourFragmentCache extends ObservedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TourFragmentCache.class);
+
+    private final Map<String, String> fragments;
+    private volatile int maxSize;
+
+    public TourFragmentCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.fragments = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > TourFragmentCache.this.maxSize;
+            }
+        };
+        observe(ToursModule.TOURS_REPOSITORY_NAME, new TourEventListener());
+        invalidateOnChangesOf(CategorizationModule.CATEGORIZATION_WORKSPACE, DamConstants.WORKSPACE, RepositoryConstants.WEBSITE);
+    }
+
+    /**
+     * Returns the markup of the fragment for the given version of a tour or <code>null</code> if it has not been
+     * rendered yet.
+     */
+    public String get(String fragment, String tourIdentifier, String siteIdentifier, Locale locale, long lastModified) {
+        final String key = getKey(fragment, tourIdentifier, siteIdentifier, locale, lastModified);
+        synchronized (fragments) {
+            return fragments.get(key);
+        }
+    }
+
+    public void put(String fragment, String tourIdentifier, String siteIdentifier, Locale locale, long lastModified, String markup) {
+        if (maxSize <= 0) {
+            return;
+        }
+        final String key = getKey(fragment, tourIdentifier, siteIdentifier, locale, lastModified);
+        synchronized (fragments) {
+            fragments.put(key, markup);
+        }
+    }
+
+    public int size() {
+        synchronized (fragments) {
+            return fragments.size();
+        }
+    }
+
+    /**
+     * Drops all fragments of the tour with the given identifier.
+     */
+    public void invalidateTour(String tourIdentifier) {
+        final String prefix = tourIdentifier + "|";
+        synchronized (fragments) {
+            for (Iterator<String> keys = fragments.keySet().iterator(); keys.hasNext(); ) {
+                if (keys.next().startsWith(prefix)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        synchronized (fragments) {
+            fragments.clear();
+        }
+    }
+
+    /**
+     * Starts the cache keeping at most <code>maxSize</code> fragments; none if it is not positive.
+     */
+    public synchronized void start(int maxSize) {
+        this.maxSize = maxSize;
+        start();
+    }
+
+    private static String getKey(String fragment, String tourIdentifier, String siteIdentifier, Locale locale, long lastModified) {
+        return tourIdentifier + "|" + fragment + "|" + siteIdentifier + "|" + locale + "|" + lastModified;
+    }
+
+    /**
+     * Drops the fragments of changed tours; moves may change any tour, so they drop all fragments.
+     */
+    private class TourEventListener implements EventListener {
+
+        @Override
+        public void onEvent(EventIterator events) {
+            try {
+                final Set<String> identifiers = new LinkedHashSet<>();
+                while (events.hasNext()) {
+                    final Event event = events.nextEvent();
+                    if (event.getType() == Event.NODE_MOVED) {
+                        invalidate();
+                        return;
+                    }
+                    if (event.getIdentifier() != null) {
+                        identifiers.add(event.getIdentifier());
+                    }
+                }
+                for (String identifier : identifiers) {
+                    invalidateTour(identifier);
+                }
+            } catch (RepositoryException e) {
+                log.warn("Could not process changes of tours, dropping all tour fragments.", e);
+                invalidate();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * One page of a tour listing, as returned by {@link TourServices#getTourPage}.
+ *
+ * <p>Pages can be addressed either by offset or by an opaque cursor. A cursor also remembers the last tour of the
+ * page it was created for, so following it still continues right after that tour when tours were added or removed
+ * in the meantime.</p>
+ */
+public class TourPage {
+
+    private static final String CURSOR_SEPARATOR = ":";
+
+    private final List<Tour> tours;
+    private final int offset;
+    private final int limit;
+    private final int total;
+
+    public TourPage(List<Tour> tours, int offset, int limit, int total) {
+        this.tours = tours;
+        this.offset = offset;
+        this.limit = limit;
+        this.total = total;
+    }
+
+    public List<Tour> getTours() {
+        return tours;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Maximum number of tours per page; <code>0</code> or less means all tours are on one page.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Number of tours in the whole listing.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+    public boolean hasNext() {
+        return offset + tours.size() < total;
+    }
+
+    /**
+     * One-based number of this page.
+     */
+    public int getPageNumber() {
+        return limit > 0 ? offset / limit + 1 : 1;
+    }
+
+    public int getPageCount() {
+        return limit > 0 ? Math.max(1, (total + limit - 1) / limit) : 1;
+    }
+
+    /**
+     * Returns the cursor of the next page or <code>null</code> if this is the last one.
+     */
+    public String getNextCursor() {
+        if (!hasNext()) {
+            return null;
+        }
+        final String lastIdentifier = tours.isEmpty() ? null : tours.get(tours.size() - 1).getIdentifier();
+        return encodeCursor(offset + tours.size(), lastIdentifier);
+    }
+
+    /**
+     * Returns the cursor of the previous page or <code>null</code> if this is the first one.
+     */
+    public String getPreviousCursor() {
+        if (!hasPrevious()) {
+            return null;
+        }
+        return encodeCursor(limit > 0 ? Math.max(0, offset - limit) : 0, null);
+    }
+
+    static String encodeCursor(int offset, String lastIdentifier) {
+        final String cursor = offset + CURSOR_SEPARATOR + StringUtils.defaultString(lastIdentifier);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the offset stored in the given cursor; blank or malformed cursors point to the first page.
+     */
+    static int getCursorOffset(String cursor) {
+        return Math.max(0, NumberUtils.toInt(StringUtils.substringBefore(decodeCursor(cursor), CURSOR_SEPARATOR)));
+    }
+
+    /**
+     * Returns the identifier of the tour preceding the page the given cursor points to, if any.
+     */
+    static String getCursorIdentifier(String cursor) {
+        return StringUtils.defaultIfEmpty(StringUtils.substringAfter(decodeCursor(cursor), CURSOR_SEPARATOR), null);
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return StringUtils.EMPTY;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return StringUtils.EMPTY;
+        }
+    }
+}
@@ -34,34 +34,53 @@
 package info.magnolia.demo.travel.tours.service;
 
 import info.magnolia.cms.core.Path;
-import info.magnolia.cms.util.QueryUtil;
+import info.magnolia.cms.i18n.I18nContentSupport;
 import info.magnolia.cms.util.SelectorUtil;
+import info.magnolia.context.Context;
 import info.magnolia.context.MgnlContext;
 import info.magnolia.dam.api.Asset;
 import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+import info.magnolia.demo.travel.templating.ImageTemplatingFunctions;
+import info.magnolia.demo.travel.trace.AccessTrace;
 import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.demo.travel.tours.metrics.TourMetrics;
+import info.magnolia.demo.travel.tours.service.TourCatalogue.CategoryEntry;
+import info.magnolia.demo.travel.tours.service.TourCatalogue.TourEntry;
+import info.magnolia.jcr.util.NodeTypes;
 import info.magnolia.jcr.util.NodeUtil;
 import info.magnolia.jcr.wrapper.I18nNodeWrapper;
 import info.magnolia.link.LinkException;
 import info.magnolia.link.LinkTransformerManager;
 import info.magnolia.link.LinkUtil;
+import info.magnolia.module.categorization.CategorizationModule;
 import info.magnolia.module.categorization.functions.CategorizationTemplatingFunctions;
+import info.magnolia.objectfactory.Components;
 import info.magnolia.rendering.template.type.DefaultTemplateTypes;
 import info.magnolia.rendering.template.type.TemplateTypeHelper;
+import info.magnolia.repository.RepositoryConstants;
 import info.magnolia.templating.functions.TemplatingFunctions;
 
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.jcr.ItemNotFoundException;
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
-import javax.jcr.query.Query;
+import javax.jcr.Value;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -69,6 +88,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Service class used by several model classes.
+ *
+ * <p>Tours and categories are served from an in-memory {@link TourCatalogue} which is kept up to date by observation
+ * once {@link #start() started} by the {@link ToursModule}.</p>
  */
 @Singleton
 public class TourServices {
@@ -77,22 +99,78 @@ public class TourServices {
 
     public static final String TOUR_QUERY_PARAMETER = "tour";
 
+    private static final String PROPERTY_NAME_FEATURED = "isFeatured";
+
+    private static final String REQUEST_CACHE_ATTRIBUTE = TourServices.class.getName() + ".requestCache";
+
     private final ToursModule toursModule;
     private final TemplateTypeHelper templateTypeHelper;
     private final TemplatingFunctions templatingFunctions;
     private final CategorizationTemplatingFunctions categorizationTemplatingFunctions;
-    private final DamTemplatingFunctions damFunctions;
+    private final ImageTemplatingFunctions imageFunctions;
     private final LinkTransformerManager linkTransformerManager;
+    private final TourCatalogue catalogue;
+    private final ConcurrentMap<String, SlugIndex> slugIndexes = new ConcurrentHashMap<>();
+    private final CategoryLinkCache categoryLinkCache = new CategoryLinkCache();
+    private final TourBodyCache tourBodyCache = new TourBodyCache();
+    private final TourFragmentCache tourFragmentCache = new TourFragmentCache(0);
+    private final TourMetrics metrics = new TourMetrics();
+    private volatile boolean started;
 
     @Inject
     public TourServices(ToursModule toursModule, TemplateTypeHelper templateTypeHelper, TemplatingFunctions templatingFunctions,
-            CategorizationTemplatingFunctions categorizationTemplatingFunctions, DamTemplatingFunctions damFunctions, LinkTransformerManager linkTransformerManager) {
+            CategorizationTemplatingFunctions categorizationTemplatingFunctions, ImageTemplatingFunctions imageFunctions, LinkTransformerManager linkTransformerManager) {
         this.toursModule = toursModule;
         this.templateTypeHelper = templateTypeHelper;
         this.templatingFunctions = templatingFunctions;
         this.categorizationTemplatingFunctions = categorizationTemplatingFunctions;
-        this.damFunctions = damFunctions;
+        this.imageFunctions = imageFunctions;
         this.linkTransformerManager = linkTransformerManager;
+        this.catalogue = new TourCatalogue(new CatalogueLoader());
+    }
+
+    /**
+     * @deprecated since 1.1.2, use {@link #TourServices(ToursModule, TemplateTypeHelper, TemplatingFunctions, CategorizationTemplatingFunctions, ImageTemplatingFunctions, LinkTransformerManager)} instead.
+     */
+    @Deprecated
+    public TourServices(ToursModule toursModule, TemplateTypeHelper templateTypeHelper, TemplatingFunctions templatingFunctions,
+            CategorizationTemplatingFunctions categorizationTemplatingFunctions, DamTemplatingFunctions damFunctions, LinkTransformerManager linkTransformerManager) {
+        this(toursModule, templateTypeHelper, templatingFunctions, categorizationTemplatingFunctions, new ImageTemplatingFunctions(damFunctions), linkTransformerManager);
+    }
+
+    /**
+     * Returns the metrics of the tours module, which the {@link ToursModule} publishes via JMX.
+     */
+    public TourMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts observing the <code>tours</code>, <code>category</code>, <code>website</code> and <code>dam</code>
+     * workspaces to keep the catalogue, the slug indexes, the category links and the resolved tour bodies up to date.
+     * Also starts the {@link TourFragmentCache} and the pool reading tours into the catalogue, if
+     * {@link ToursModule#getMarshallingThreads() configured}.
+     */
+    public synchronized void start() {
+        catalogue.start(toursModule.getMarshallingThreads());
+        categoryLinkCache.start();
+        tourBodyCache.start();
+        tourFragmentCache.start(toursModule.getFragmentCacheSize());
+        for (SlugIndex slugIndex : slugIndexes.values()) {
+            slugIndex.start();
+        }
+        started = true;
+    }
+
+    public synchronized void stop() {
+        started = false;
+        catalogue.stop();
+        categoryLinkCache.stop();
+        tourBodyCache.stop();
+        tourFragmentCache.stop();
+        for (SlugIndex slugIndex : slugIndexes.values()) {
+            slugIndex.stop();
+        }
     }
 
     /**
@@ -100,7 +178,13 @@ public class TourServices {
      */
     public Category getCategoryByUrl() {
         final String categoryName = StringUtils.defaultIfBlank(SelectorUtil.getSelector(0), "active");
-        return getCategoryByName(categoryName);
+
+        final RequestCache requestCache = getRequestCache();
+        if (!categoryName.equals(requestCache.categoryName)) {
+            requestCache.category = getCategoryByName(categoryName);
+            requestCache.categoryName = categoryName;
+        }
+        return requestCache.category;
     }
 
     /**
@@ -111,9 +195,10 @@ public class TourServices {
 
         Category category = null;
         try {
-            final Node categoryNode = getContentNodeByName(categoryName, categoryWorkspace);
-            if (categoryNode != null) {
-                category = marshallCategoryNode(categoryNode);
+            if (categoryName.startsWith("/")) {
+                category = marshallCategoryNode(getContentNodeByName(categoryName, categoryWorkspace));
+            } else {
+                category = getCategory(getCatalogue().getCategoryByNodeName(categoryName), new MarshallingBatch());
             }
         } catch (RepositoryException e) {
             log.debug("Could not find category with name [{}] in workspace [{}]", categoryName, categoryWorkspace);
@@ -122,43 +207,31 @@ public class TourServices {
         return category;
     }
 
+    /**
+     * Returns the {@link Category} with the given identifier from the catalogue or <code>null</code> if there is none.
+     */
+    public Category getCategoryByIdentifier(String identifier) {
+        try {
+            return getCategory(getCatalogue().getCategory(identifier), new MarshallingBatch());
+        } catch (RepositoryException e) {
+            log.error("Could not get category with identifier [{}].", identifier, e);
+        }
+        return null;
+    }
+
     /**
      * Creates a {@link Category} object from a {@link Node}.
      */
     public Category marshallCategoryNode(Node categoryNodeRaw) {
+        return marshallCategoryNode(categoryNodeRaw, new MarshallingBatch());
+    }
+
+    private Category marshallCategoryNode(Node categoryNodeRaw, MarshallingBatch batch) {
         Category category = null;
 
         if (categoryNodeRaw != null) {
             try {
-                final Node categoryNode = wrapForI18n(categoryNodeRaw);
-
-                String name = categoryNode.getName();
-                if (categoryNode.hasProperty(Category.PROPERTY_NAME_DISPLAY_NAME)) {
-                    name = categoryNode.getProperty(Category.PROPERTY_NAME_DISPLAY_NAME).getString();
-                }
-
-                category = new Category(name, categoryNode.getIdentifier());
-
-                // We always require a slug, here using the node name as the name might have a nicer display name
-                category.setNodeName(categoryNode.getName());
-
-                if (categoryNode.hasProperty(Category.PROPERTY_NAME_DESCRIPTION)) {
-                    category.setDescription(categoryNode.getProperty(Category.PROPERTY_NAME_DESCRIPTION).getString());
-                }
-
-                if (categoryNode.hasProperty(Category.PROPERTY_NAME_BODY)) {
-                    category.setBody(categoryNode.getProperty(Category.PROPERTY_NAME_BODY).getString());
-                }
-
-                if (categoryNode.hasProperty(Category.PROPERTY_NAME_IMAGE)) {
-                    Asset image = damFunctions.getAsset(categoryNode.getProperty(Category.PROPERTY_NAME_IMAGE).getString());
-                    category.setImage(image);
-                }
-
-                if (categoryNode.hasProperty(Category.PROPERTY_NAME_ICON)) {
-                    Asset icon = damFunctions.getAsset(categoryNode.getProperty(Category.PROPERTY_NAME_ICON).getString());
-                    category.setIcon(icon);
-                }
+                category = toCategory(readCategoryEntry(wrapForI18n(categoryNodeRaw)), batch);
             } catch (RepositoryException e) {
                 log.debug("Could not marshall category from node [{}]", categoryNodeRaw);
             }
@@ -174,9 +247,10 @@ public class TourServices {
      */
     public List<Category> marshallCategoryNodes(List<Node> categoryNodes, Node contentNode, String featureSubTypeName) {
         final List<Category> categories = new ArrayList<>();
+        final MarshallingBatch batch = new MarshallingBatch();
 
         for (Node categoryNode : categoryNodes) {
-            final Category category = marshallCategoryNode(categoryNode);
+            final Category category = marshallCategoryNode(categoryNode, batch);
             if (category != null) {
                 try {
                     final String link = getCategoryLink(contentNode, categoryNode.getName(), featureSubTypeName);
@@ -200,87 +274,156 @@ public class TourServices {
      * Creates a {@link Tour} from a {@link Node}.
      */
     public Tour marshallTourNode(Node tourNodeRaw) {
+        return marshallTourNode(tourNodeRaw, new MarshallingBatch());
+    }
+
+    /**
+     * Creates {@link Tour}s from {@link Node}s, skipping nodes which can't be marshalled. Categories and assets shared
+     * by several tours are only resolved once, the resulting {@link Category} instances are shared as well.
+     */
+    public List<Tour> marshallTourNodes(Collection<Node> tourNodes) {
+        final MarshallingBatch batch = new MarshallingBatch();
+        final List<Tour> tours = new ArrayList<>(tourNodes.size());
+        for (Node tourNode : tourNodes) {
+            final Tour tour = marshallTourNode(tourNode, batch);
+            if (tour != null) {
+                tours.add(tour);
+            }
+        }
+
+        return tours;
+    }
+
+    private Tour marshallTourNode(Node tourNodeRaw, MarshallingBatch batch) {
         Tour tour = null;
 
         if (tourNodeRaw != null) {
             final Node tourNode = wrapForI18n(tourNodeRaw);
 
-            tour = new Tour();
-
             try {
-                tour.setIdentifier(tourNode.getIdentifier());
+                final TourEntry entry = readTourEntry(tourNode);
 
-                tour.setName(tourNode.getName());
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_DISPLAY_NAME)) {
-                    tour.setName(tourNode.getProperty(Tour.PROPERTY_NAME_DISPLAY_NAME).getString());
+                List<Category> tourTypes = null;
+                if (tourNode.hasProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY)) {
+                    tourTypes = getCategories(tourNode, Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, batch);
                 }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_DESCRIPTION)) {
-                    tour.setDescription(tourNode.getProperty(Tour.PROPERTY_NAME_DESCRIPTION).getString());
+                List<Category> destinations = null;
+                if (tourNode.hasProperty(Tour.PROPERTY_NAME_DESTINATION)) {
+                    destinations = getCategories(tourNode, Tour.PROPERTY_NAME_DESTINATION, batch);
                 }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_BODY)) {
-                    Property body = tourNode.getProperty(Tour.PROPERTY_NAME_BODY);
-                    if (LinkUtil.UUID_PATTERN.matcher(body.getString()).find()) {
-                        try {
-                            String bodyWithResolvedLinks = LinkUtil.convertLinksFromUUIDPattern(body.getString(),
-                                    linkTransformerManager.getBrowserLink(tourNode.getPath()));
-                            tour.setBody(bodyWithResolvedLinks);
-                        } catch (LinkException e) {
-                            log.warn("Failed to parse links with from {}", body.getName(), e);
-                        }
-                    } else {
-                        tour.setBody(body.getString());
-                    }
-                 }
+                tour = toTour(entry, tourTypes, destinations, batch);
+            } catch (RepositoryException e) {
+                log.debug("Could not marshall tour from node [{}]", tourNodeRaw);
+            }
+        }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_AUTHOR)) {
-                    tour.setAuthor(tourNode.getProperty(Tour.PROPERTY_NAME_AUTHOR).getString());
-                }
+        return tour;
+    }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_DURATION)) {
-                    tour.setDuration(tourNode.getProperty(Tour.PROPERTY_NAME_DURATION).getString());
-                }
+    /**
+     * Returns the {@link Tour} with the given identifier from the catalogue or <code>null</code> if there is none.
+     */
+    public Tour getTourByIdentifier(String identifier) {
+        try {
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final TourEntry entry = snapshot.getTour(identifier);
+            if (entry != null) {
+                return getTour(entry, snapshot, new MarshallingBatch());
+            }
+        } catch (RepositoryException e) {
+            log.error("Could not get tour with identifier [{}].", identifier, e);
+        }
+        return null;
+    }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_LOCATION)) {
-                    tour.setLocation(tourNode.getProperty(Tour.PROPERTY_NAME_LOCATION).getString());
-                }
+    /**
+     * Returns the {@link Tour}s with the given identifiers from the catalogue, in the same order; unknown identifiers
+     * are skipped and reported once.
+     */
+    public List<Tour> getToursByIdentifiers(Collection<String> identifiers) {
+        final List<Tour> tours = new ArrayList<>(identifiers.size());
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_IMAGE)) {
-                    tour.setImage(damFunctions.getAsset(tourNode.getProperty(Tour.PROPERTY_NAME_IMAGE).getString()));
+        try {
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final MarshallingBatch batch = new MarshallingBatch();
+            final List<String> missing = new ArrayList<>();
+            for (String identifier : identifiers) {
+                final TourEntry entry = snapshot.getTour(identifier);
+                if (entry != null) {
+                    tours.add(getTour(entry, snapshot, batch));
+                } else {
+                    missing.add(identifier);
                 }
+            }
+            if (!missing.isEmpty()) {
+                log.error("Could not retrieve tours with identifiers {}.", missing);
+            }
+        } catch (RepositoryException e) {
+            log.error("Could not get tours with identifiers {}.", identifiers, e);
+        }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY)) {
-                    final List<Category> tourTypes = getCategories(tourNode, Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY);
-                    tour.setTourTypes(tourTypes);
-                }
+        return tours;
+    }
 
-                if (tourNode.hasProperty(Tour.PROPERTY_NAME_DESTINATION)) {
-                    final List<Category> destinations = getCategories(tourNode, Tour.PROPERTY_NAME_DESTINATION);
-                    tour.setDestinations(destinations);
-                }
+    /**
+     * Returns the {@link Category}/ies with the given identifiers from the catalogue, in the same order; unknown
+     * identifiers are skipped and reported once.
+     */
+    public List<Category> getCategoriesByIdentifiers(Collection<String> identifiers) {
+        final List<Category> categories = new ArrayList<>(identifiers.size());
 
-                final String tourLink = getTourLink(tourNode);
-                if (StringUtils.isNotBlank(tourLink)) {
-                    tour.setLink(tourLink);
+        try {
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final MarshallingBatch batch = new MarshallingBatch();
+            final List<String> missing = new ArrayList<>();
+            for (String identifier : identifiers) {
+                final Category category = getCategory(snapshot.getCategory(identifier), batch);
+                if (category != null) {
+                    categories.add(category);
+                } else {
+                    missing.add(identifier);
                 }
-            } catch (RepositoryException e) {
-                log.debug("Could not marshall tour from node [{}]", tourNodeRaw);
             }
+            if (!missing.isEmpty()) {
+                log.error("Could not retrieve categories with identifiers {}.", missing);
+            }
+        } catch (RepositoryException e) {
+            log.error("Could not get categories with identifiers {}.", identifiers, e);
         }
 
-        return tour;
+        return categories;
     }
 
+    /**
+     * Returns the {@link Tour} requested by the {@value #TOUR_QUERY_PARAMETER} parameter.
+     */
+    public Tour getTourByParameter() throws RepositoryException {
+        final Node tourNode = getTourNodeByParameter();
+
+        final RequestCache requestCache = getRequestCache();
+        if (requestCache.tour == null && tourNode != null) {
+            requestCache.tour = getTourByIdentifier(tourNode.getIdentifier());
+        }
+        return requestCache.tour;
+    }
+
+
     /**
      * Get and marshall all categories of a {@link Node} stored under the given <code>categoryPropertyName</code>.
      */
-    private List<Category> getCategories(Node node, String categoryPropertyName) {
+    private List<Category> getCategories(Node node, String categoryPropertyName, MarshallingBatch batch) throws RepositoryException {
         final List<Category> categories = new ArrayList<>();
 
         final List<Node> destinationNodes = categorizationTemplatingFunctions.getCategories(node, categoryPropertyName);
+        metrics.nodeLookups(destinationNodes.size());
         for (Node tourTypeNode : destinationNodes) {
-            final Category category = marshallCategoryNode(tourTypeNode);
+            AccessTrace.record(AccessTrace.Kind.NODE, CategorizationModule.CATEGORIZATION_WORKSPACE, tourTypeNode.getIdentifier());
+            Category category = batch.categories.get(tourTypeNode.getIdentifier());
+            if (category == null) {
+                category = marshallCategoryNode(tourTypeNode, batch);
+            }
             if (category != null) {
                 categories.add(category);
             }
@@ -289,9 +432,76 @@ public class TourServices {
         return categories;
     }
 
+    /**
+     * Returns the tour node requested by the {@value #TOUR_QUERY_PARAMETER} parameter; it is only looked up once per
+     * request.
+     */
     public Node getTourNodeByParameter() throws RepositoryException {
         final String tourName = StringUtils.defaultIfBlank(MgnlContext.getParameter(TOUR_QUERY_PARAMETER), toursModule.getDefaultTourName());
-        return getContentNodeByName(tourName, ToursModule.TOURS_REPOSITORY_NAME);
+
+        final RequestCache requestCache = getRequestCache();
+        if (tourName.equals(requestCache.tourName)) {
+            metrics.cache("requestTours").hit();
+        } else {
+            metrics.cache("requestTours").miss();
+            requestCache.tourNode = getContentNodeByName(tourName, ToursModule.TOURS_REPOSITORY_NAME);
+            requestCache.tour = null;
+            requestCache.tourName = tourName;
+        }
+        return requestCache.tourNode;
+    }
+
+    /**
+     * Returns the {@link RequestCache} of the current request, stored as local (i.e. request) attribute of the
+     * {@link MgnlContext}.
+     */
+    private RequestCache getRequestCache() {
+        if (!MgnlContext.hasInstance()) {
+            return new RequestCache();
+        }
+
+        RequestCache requestCache = MgnlContext.getAttribute(REQUEST_CACHE_ATTRIBUTE, Context.LOCAL_SCOPE);
+        if (requestCache == null) {
+            requestCache = new RequestCache();
+            MgnlContext.setAttribute(REQUEST_CACHE_ATTRIBUTE, requestCache, Context.LOCAL_SCOPE);
+        }
+        return requestCache;
+    }
+
+    /**
+     * Returns the markup of a fragment of the given tour as rendered before for the site of <code>content</code> in the
+     * current locale, or <code>null</code> if it has to be rendered.
+     */
+    public String getTourFragment(String fragment, String tourIdentifier, Node content) {
+        if (started) {
+            try {
+                final TourEntry entry = getCatalogue().getTour(tourIdentifier);
+                if (entry != null) {
+                    final String markup = tourFragmentCache.get(fragment, tourIdentifier, templatingFunctions.siteRoot(content).getIdentifier(), getLocale(), entry.getLastModified());
+                    metrics.cache("tourFragments").record(markup);
+                    return markup;
+                }
+            } catch (RepositoryException e) {
+                log.warn("Could not get fragment [{}] of tour [{}].", fragment, tourIdentifier, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the rendered markup of a fragment of the given tour for {@link #getTourFragment(String, String, Node)}.
+     */
+    public void putTourFragment(String fragment, String tourIdentifier, Node content, String markup) {
+        if (started) {
+            try {
+                final TourEntry entry = getCatalogue().getTour(tourIdentifier);
+                if (entry != null) {
+                    tourFragmentCache.put(fragment, tourIdentifier, templatingFunctions.siteRoot(content).getIdentifier(), getLocale(), entry.getLastModified(), markup);
+                }
+            } catch (RepositoryException e) {
+                log.warn("Could not keep fragment [{}] of tour [{}].", fragment, tourIdentifier, e);
+            }
+        }
     }
 
     /**
@@ -300,11 +510,11 @@ public class TourServices {
      */
     public String getCategoryLink(Node content, String categoryName, String featureSubType) {
         try {
-            Node siteRoot = templatingFunctions.siteRoot(content);
-            Node categoryOverviewPage = categorizationTemplatingFunctions.getContentByTemplateCategorySubCategory(siteRoot, DefaultTemplateTypes.FEATURE, featureSubType);
+            final String overviewLink = getCategoryOverviewLink(templatingFunctions.siteRoot(content), featureSubType);
+            final int extensionIndex = overviewLink.lastIndexOf(".html");
 
-            if (categoryOverviewPage != null) {
-                return templatingFunctions.link(categoryOverviewPage).replace(".html", Path.SELECTOR_DELIMITER + categoryName + Path.SELECTOR_DELIMITER + ".html");
+            if (extensionIndex >= 0) {
+                return overviewLink.substring(0, extensionIndex) + Path.SELECTOR_DELIMITER + categoryName + Path.SELECTOR_DELIMITER + overviewLink.substring(extensionIndex);
             }
         } catch (RepositoryException e) {
             log.warn("Can't get categoryOverview page link [subType={}]", featureSubType, e);
@@ -313,15 +523,63 @@ public class TourServices {
         return StringUtils.EMPTY;
     }
 
+    /**
+     * Returns the link of the feature page of the given sub type below the site root, or an empty String if there is
+     * none. Links are cached until the <code>website</code> workspace changes.
+     */
+    private String getCategoryOverviewLink(Node siteRoot, String featureSubType) throws RepositoryException {
+        final Locale locale = getLocale();
+        final String siteRootIdentifier = siteRoot.getIdentifier();
+        String link = started ? categoryLinkCache.get(siteRootIdentifier, featureSubType, locale) : null;
+        metrics.cache("categoryLinks").record(link);
+
+        if (link == null) {
+            final String pageIdentifier = findCategoryOverviewPage(siteRootIdentifier, featureSubType);
+            link = pageIdentifier != null ? StringUtils.defaultString(templatingFunctions.link(RepositoryConstants.WEBSITE, pageIdentifier)) : StringUtils.EMPTY;
+            // A page the current user may not read isn't linked, but mustn't be cached as missing for other users either
+            if (started && (pageIdentifier == null || !link.isEmpty())) {
+                categoryLinkCache.put(siteRootIdentifier, featureSubType, locale, link);
+            }
+        }
+
+        return link;
+    }
+
+    /**
+     * Searches the feature page of the given sub type below the site root with the system context, so the page linked
+     * for all users doesn't depend on the permissions of whoever requested it first. Returns its identifier or
+     * <code>null</code> if there is none.
+     */
+    private String findCategoryOverviewPage(final String siteRootIdentifier, final String featureSubType) throws RepositoryException {
+        metrics.jcrQuery();
+        AccessTrace.record(AccessTrace.Kind.QUERY, RepositoryConstants.WEBSITE, featureSubType);
+        return MgnlContext.doInSystemContext(new MgnlContext.Op<String, RepositoryException>() {
+            @Override
+            public String exec() throws RepositoryException {
+                final Node siteRoot = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE).getNodeByIdentifier(siteRootIdentifier);
+                final Node categoryOverviewPage = categorizationTemplatingFunctions.getContentByTemplateCategorySubCategory(siteRoot, DefaultTemplateTypes.FEATURE, featureSubType);
+                return categoryOverviewPage != null ? categoryOverviewPage.getIdentifier() : null;
+            }
+        });
+    }
+
     private Node getContentNodeByName(final String pathOrName, final String workspace) throws RepositoryException {
+        AccessTrace.record(AccessTrace.Kind.NODE, workspace, pathOrName);
         if (pathOrName.startsWith("/")) {
+            metrics.nodeLookups(1);
             return MgnlContext.getJCRSession(workspace).getNode(StringUtils.substringBefore(pathOrName, "?"));
         } else {
-            final String sql = String.format("SELECT * FROM [nt:base] AS content WHERE name(content)='%s'", pathOrName);
-            final NodeIterator items = QueryUtil.search(workspace, sql, Query.JCR_SQL2, "mgnl:content");
+            final SlugIndex slugIndex = getSlugIndex(workspace);
+            final String identifier = slugIndex.getIdentifier(pathOrName);
+            metrics.cache("slugIndex").record(identifier);
 
-            if (items != null && items.hasNext()) {
-                return items.nextNode();
+            if (identifier != null) {
+                try {
+                    metrics.nodeLookups(1);
+                    return MgnlContext.getJCRSession(workspace).getNodeByIdentifier(identifier);
+                } catch (ItemNotFoundException e) {
+                    slugIndex.recordChange(identifier);
+                }
             }
         }
 
@@ -329,17 +587,30 @@ public class TourServices {
         return null;
     }
 
+    private SlugIndex getSlugIndex(String workspace) {
+        SlugIndex slugIndex = slugIndexes.get(workspace);
+        if (slugIndex == null) {
+            synchronized (this) {
+                slugIndex = slugIndexes.get(workspace);
+                if (slugIndex == null) {
+                    slugIndex = new SlugIndex(workspace);
+                    if (started) {
+                        slugIndex.start();
+                    }
+                    slugIndexes.put(workspace, slugIndex);
+                }
+            }
+        }
+        return slugIndex;
+    }
+
     public List<Category> getRelatedCategoriesByParameter() {
         final List<Category> categories = new LinkedList<>();
 
         try {
             final Node node = getTourNodeByParameter();
-
-            for (Node categoryNode : categorizationTemplatingFunctions.getCategories(node, Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY)) {
-                final Category category = marshallCategoryNode(categoryNode);
-                if (category != null) {
-                    categories.add(category);
-                }
+            if (node != null) {
+                categories.addAll(getRelatedCategories(node.getIdentifier()));
             }
 
         } catch (RepositoryException e) {
@@ -349,24 +620,113 @@ public class TourServices {
         return categories;
     }
 
+    private List<Category> getRelatedCategories(String tourIdentifier) throws RepositoryException {
+        final TourCatalogue.Snapshot snapshot = getCatalogue();
+        final TourEntry entry = snapshot.getTour(tourIdentifier);
+
+        final List<Category> categories = entry != null ? getCategories(entry.getCategoryIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY), snapshot, new MarshallingBatch()) : null;
+        return categories != null ? categories : Collections.<Category>emptyList();
+    }
+
     public List<Tour> getToursByCategory(String categoryPropertyName, String identifier) {
         return getToursByCategory(categoryPropertyName, identifier, false);
     }
 
     public List<Tour> getToursByCategory(String categoryPropertyName, String identifier, boolean featured) {
-        final List<Tour> tours = new LinkedList<>();
+        return findToursByCategory(categoryPropertyName, identifier, featured);
+    }
+
+    /**
+     * Returns the featured tours referencing the given category in the order kept by the {@link TourCatalogue},
+     * without the tour with the identifier <code>excludedTourIdentifier</code> (if any) and at most
+     * {@link ToursModule#getMaxFeaturedTours()} of them; only the returned tours are marshalled.
+     */
+    public List<Tour> getFeaturedToursByCategory(String categoryPropertyName, String identifier, String excludedTourIdentifier) {
+        return findFeaturedToursByCategory(categoryPropertyName, identifier, excludedTourIdentifier);
+    }
+
+    /**
+     * Returns at most <code>maxTours</code> tours sharing tour types or destinations with the given tour, ranked by
+     * the number of shared categories weighted as configured in {@link ToursModule}; ties keep the catalogue order.
+     * Only the returned tours are marshalled.
+     */
+    public List<Tour> getSimilarTours(String tourIdentifier, int maxTours) {
+        final List<Tour> tours = new ArrayList<>();
 
         try {
-            final Session session = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
-            String query = String.format("%s LIKE '%%%s%%'", categoryPropertyName, identifier);
-            if (featured) {
-                query += " AND isFeatured = 'true'";
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final MarshallingBatch batch = new MarshallingBatch();
+            for (String identifier : snapshot.getSimilarityIndex().getMostSimilar(tourIdentifier, getSimilarityWeights(), maxTours)) {
+                tours.add(getTour(snapshot.getTour(identifier), snapshot, batch));
             }
 
-            final List<Node> tourNodes = templateTypeHelper.getContentListByTemplateIds(session.getRootNode(), null, Integer.MAX_VALUE, query, null);
-            for (Node tourNode : tourNodes) {
-                final Tour tour = marshallTourNode(tourNode);
-                tours.add(tour);
+        } catch (RepositoryException e) {
+            log.error("Could not get tours similar to tour [{}].", tourIdentifier, e);
+        }
+
+        return tours;
+    }
+
+    /**
+     * Returns the weights of the {@link TourCatalogue#CATEGORY_PROPERTY_NAMES} when ranking similar tours.
+     */
+    private int[] getSimilarityWeights() {
+        final int[] weights = new int[TourCatalogue.CATEGORY_PROPERTY_NAMES.size()];
+        int property = 0;
+        for (String categoryPropertyName : TourCatalogue.CATEGORY_PROPERTY_NAMES) {
+            weights[property++] = Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY.equals(categoryPropertyName) ? toursModule.getTourTypeSimilarityWeight() : toursModule.getDestinationSimilarityWeight();
+        }
+        return weights;
+    }
+
+    private List<Tour> findFeaturedToursByCategory(String categoryPropertyName, String identifier, String excludedTourIdentifier) {
+        final int maxTours = toursModule.getMaxFeaturedTours();
+        final List<Tour> tours = new ArrayList<>();
+
+        try {
+            if (!TourCatalogue.CATEGORY_PROPERTY_NAMES.contains(categoryPropertyName)) {
+                final List<Node> tourNodes = new ArrayList<>();
+                for (Node tourNode : queryTourNodesByCategory(categoryPropertyName, identifier, true)) {
+                    if (maxTours > 0 && tourNodes.size() >= maxTours) {
+                        break;
+                    }
+                    if (!tourNode.getIdentifier().equals(excludedTourIdentifier)) {
+                        tourNodes.add(tourNode);
+                    }
+                }
+                return marshallTourNodes(tourNodes);
+            }
+
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final MarshallingBatch batch = new MarshallingBatch();
+            for (String tourIdentifier : snapshot.getTourIdentifiers(categoryPropertyName, identifier, true)) {
+                if (maxTours > 0 && tours.size() >= maxTours) {
+                    break;
+                }
+                if (!tourIdentifier.equals(excludedTourIdentifier)) {
+                    tours.add(getTour(snapshot.getTour(tourIdentifier), snapshot, batch));
+                }
+            }
+
+        } catch (RepositoryException e) {
+            log.error("Could not get featured tours by category identifier [{}={}].", categoryPropertyName, identifier, e);
+        }
+
+        return tours;
+    }
+
+    private List<Tour> findToursByCategory(String categoryPropertyName, String identifier, boolean featured) {
+        if (!TourCatalogue.CATEGORY_PROPERTY_NAMES.contains(categoryPropertyName)) {
+            return queryToursByCategory(categoryPropertyName, identifier, featured);
+        }
+
+        final List<Tour> tours = new ArrayList<>();
+
+        try {
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final MarshallingBatch batch = new MarshallingBatch();
+            for (TourEntry entry : snapshot.getTours(categoryPropertyName, identifier, featured)) {
+                tours.add(getTour(entry, snapshot, batch));
             }
 
         } catch (RepositoryException e) {
@@ -376,6 +736,140 @@ public class TourServices {
         return tours;
     }
 
+    /**
+     * Returns the page of tours starting at <code>offset</code> with at most <code>limit</code> tours referencing the
+     * given category; only the tours of that page are marshalled.
+     */
+    public TourPage getTourPage(String categoryPropertyName, String identifier, boolean featured, int offset, int limit) {
+        return getTourPage(categoryPropertyName, identifier, featured, Math.max(0, offset), null, limit);
+    }
+
+    /**
+     * Returns the page of at most <code>limit</code> tours referencing the given category which the given cursor (see
+     * {@link TourPage#getNextCursor()}) points to; a blank cursor returns the first page.
+     */
+    public TourPage getTourPage(String categoryPropertyName, String identifier, boolean featured, String cursor, int limit) {
+        return getTourPage(categoryPropertyName, identifier, featured, TourPage.getCursorOffset(cursor), TourPage.getCursorIdentifier(cursor), limit);
+    }
+
+    public List<Tour> getToursByCategory(String categoryPropertyName, String identifier, boolean featured, int offset, int limit) {
+        return getTourPage(categoryPropertyName, identifier, featured, offset, limit).getTours();
+    }
+
+    private TourPage getTourPage(String categoryPropertyName, String identifier, boolean featured, int offset, String previousIdentifier, int limit) {
+        final List<Tour> tours = new ArrayList<>();
+        int from = offset;
+        int total = 0;
+
+        try {
+            if (!TourCatalogue.CATEGORY_PROPERTY_NAMES.contains(categoryPropertyName)) {
+                final List<Node> tourNodes = queryTourNodesByCategory(categoryPropertyName, identifier, featured);
+                final List<String> tourIdentifiers = new ArrayList<>(tourNodes.size());
+                for (Node tourNode : tourNodes) {
+                    tourIdentifiers.add(tourNode.getIdentifier());
+                }
+                total = tourNodes.size();
+                from = Math.min(getPageOffset(tourIdentifiers, offset, previousIdentifier), total);
+                final int to = limit > 0 ? Math.min(from + limit, total) : total;
+                tours.addAll(marshallTourNodes(tourNodes.subList(from, to)));
+            } else {
+                final TourCatalogue.Snapshot snapshot = getCatalogue();
+                final MarshallingBatch batch = new MarshallingBatch();
+                final Set<String> tourIdentifiers = snapshot.getTourIdentifiers(categoryPropertyName, identifier, featured);
+                total = tourIdentifiers.size();
+                from = Math.min(getPageOffset(tourIdentifiers, offset, previousIdentifier), total);
+                int position = 0;
+                for (String tourIdentifier : tourIdentifiers) {
+                    if (limit > 0 && position >= from + limit) {
+                        break;
+                    }
+                    if (position++ >= from) {
+                        tours.add(getTour(snapshot.getTour(tourIdentifier), snapshot, batch));
+                    }
+                }
+            }
+
+        } catch (RepositoryException e) {
+            log.error("Could not get related tours by category identifier [{}={}].", categoryPropertyName, identifier, e);
+        }
+
+        return new TourPage(tours, from, limit, total);
+    }
+
+    /**
+     * Returns the page of at most <code>limit</code> tours matching all words of the given query, starting at
+     * <code>offset</code>, best matches first.
+     *
+     * <p>Tours are looked up in the {@link SearchIndex} of the catalogue for the current locale (name, location,
+     * category names, description and body); only the tours of the returned page are marshalled.</p>
+     */
+    public TourPage searchTours(String query, int offset, int limit) {
+        final List<Tour> tours = new ArrayList<>();
+        int from = Math.max(0, offset);
+        int total = 0;
+
+        try {
+            final TourCatalogue.Snapshot snapshot = getCatalogue();
+            final List<String> tourIdentifiers = snapshot.getSearchIndex().search(query);
+            total = tourIdentifiers.size();
+            from = Math.min(from, total);
+            final int to = limit > 0 ? Math.min(from + limit, total) : total;
+            final MarshallingBatch batch = new MarshallingBatch();
+            for (String tourIdentifier : tourIdentifiers.subList(from, to)) {
+                tours.add(getTour(snapshot.getTour(tourIdentifier), snapshot, batch));
+            }
+
+        } catch (RepositoryException e) {
+            log.error("Could not search tours for [{}].", query, e);
+        }
+
+        return new TourPage(tours, from, limit, total);
+    }
+
+    /**
+     * Continues right after <code>previousIdentifier</code> if it is still listed, at <code>offset</code> otherwise.
+     */
+    private int getPageOffset(Iterable<String> tourIdentifiers, int offset, String previousIdentifier) {
+        if (previousIdentifier != null) {
+            int position = 0;
+            for (String tourIdentifier : tourIdentifiers) {
+                position++;
+                if (previousIdentifier.equals(tourIdentifier)) {
+                    return position;
+                }
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Queries tours by a category property which is not kept in the {@link TourCatalogue}.
+     */
+    private List<Tour> queryToursByCategory(String categoryPropertyName, String identifier, boolean featured) {
+        final List<Tour> tours = new LinkedList<>();
+
+        try {
+            tours.addAll(marshallTourNodes(queryTourNodesByCategory(categoryPropertyName, identifier, featured)));
+
+        } catch (RepositoryException e) {
+            log.error("Could not get related tours by category identifier [{}={}].", categoryPropertyName, identifier, e);
+        }
+
+        return tours;
+    }
+
+    private List<Node> queryTourNodesByCategory(String categoryPropertyName, String identifier, boolean featured) throws RepositoryException {
+        final Session session = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
+        String query = String.format("%s LIKE '%%%s%%'", categoryPropertyName, identifier);
+        if (featured) {
+            query += " AND " + PROPERTY_NAME_FEATURED + " = 'true'";
+        }
+        metrics.jcrQuery();
+        AccessTrace.record(AccessTrace.Kind.QUERY, ToursModule.TOURS_REPOSITORY_NAME, query);
+
+        return templateTypeHelper.getContentListByTemplateIds(session.getRootNode(), null, Integer.MAX_VALUE, query, null);
+    }
+
     /**
      * Create a link to a specific tour.
      */
@@ -383,4 +877,286 @@ public class TourServices {
         return templatingFunctions.link(tourNode);
     }
 
+    /**
+     * Returns the link to the tour of a catalogue entry, or <code>null</code> if the current user may not read it.
+     * Links depend on the site they are rendered for (e.g. with multisite), so they are resolved once per request
+     * rather than kept in the catalogue.
+     */
+    private String getTourLink(TourEntry entry) {
+        final Map<String, String> tourLinks = getRequestCache().tourLinks;
+        String link = tourLinks.get(entry.getIdentifier());
+        if (link == null) {
+            link = StringUtils.defaultString(templatingFunctions.link(ToursModule.TOURS_REPOSITORY_NAME, entry.getIdentifier()));
+            tourLinks.put(entry.getIdentifier(), link);
+        }
+        return StringUtils.defaultIfEmpty(link, null);
+    }
+
+    private TourCatalogue.Snapshot getCatalogue() throws RepositoryException {
+        return catalogue.get(getLocale());
+    }
+
+    private Locale getLocale() {
+        final Locale locale = Components.getComponent(I18nContentSupport.class).getLocale();
+        return locale != null ? locale : Locale.ROOT;
+    }
+
+    /**
+     * Reads the detached values of an (i18n wrapped) tour node.
+     */
+    private TourEntry readTourEntry(Node tourNode) throws RepositoryException {
+        final TourEntry entry = new TourEntry(tourNode.getIdentifier(), tourNode.getName(), tourNode.getPath());
+
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_DISPLAY_NAME)) {
+            entry.setName(tourNode.getProperty(Tour.PROPERTY_NAME_DISPLAY_NAME).getString());
+        }
+
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_DESCRIPTION)) {
+            entry.setDescription(tourNode.getProperty(Tour.PROPERTY_NAME_DESCRIPTION).getString());
+        }
+
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_BODY)) {
+            final String body = tourNode.getProperty(Tour.PROPERTY_NAME_BODY).getString();
+            entry.setBody(body);
+            entry.setLinks(LinkUtil.UUID_PATTERN.matcher(body).find());
+        }
+
+        // Authors, durations and locations repeat across tours, only keep one instance of each
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_AUTHOR)) {
+            entry.setAuthor(tourNode.getProperty(Tour.PROPERTY_NAME_AUTHOR).getString().intern());
+        }
+
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_DURATION)) {
+            entry.setDuration(tourNode.getProperty(Tour.PROPERTY_NAME_DURATION).getString().intern());
+        }
+
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_LOCATION)) {
+            entry.setLocation(tourNode.getProperty(Tour.PROPERTY_NAME_LOCATION).getString().intern());
+        }
+
+        if (tourNode.hasProperty(Tour.PROPERTY_NAME_IMAGE)) {
+            entry.setImageKey(tourNode.getProperty(Tour.PROPERTY_NAME_IMAGE).getString());
+        }
+
+        if (tourNode.hasProperty(PROPERTY_NAME_FEATURED)) {
+            entry.setFeatured(tourNode.getProperty(PROPERTY_NAME_FEATURED).getBoolean());
+        }
+
+        for (String categoryPropertyName : TourCatalogue.CATEGORY_PROPERTY_NAMES) {
+            if (tourNode.hasProperty(categoryPropertyName)) {
+                entry.setCategoryIdentifiers(categoryPropertyName, getPropertyValues(tourNode.getProperty(categoryPropertyName)));
+            }
+        }
+
+        final Calendar lastModified = NodeTypes.LastModified.getLastModified(tourNode);
+        if (lastModified != null) {
+            entry.setLastModified(lastModified.getTimeInMillis());
+        }
+
+        return entry;
+    }
+
+    private List<String> getPropertyValues(Property property) throws RepositoryException {
+        final List<String> values = new ArrayList<>();
+        if (property.isMultiple()) {
+            for (Value value : property.getValues()) {
+                values.add(value.getString());
+            }
+        } else {
+            values.add(property.getString());
+        }
+        return values;
+    }
+
+    /**
+     * Reads the detached values of an (i18n wrapped) category node.
+     */
+    private CategoryEntry readCategoryEntry(Node categoryNode) throws RepositoryException {
+        // We always require a slug, here using the node name as the name might have a nicer display name
+        final CategoryEntry entry = new CategoryEntry(categoryNode.getIdentifier(), categoryNode.getName());
+
+        if (categoryNode.hasProperty(Category.PROPERTY_NAME_DISPLAY_NAME)) {
+            entry.setName(categoryNode.getProperty(Category.PROPERTY_NAME_DISPLAY_NAME).getString());
+        }
+
+        if (categoryNode.hasProperty(Category.PROPERTY_NAME_DESCRIPTION)) {
+            entry.setDescription(categoryNode.getProperty(Category.PROPERTY_NAME_DESCRIPTION).getString());
+        }
+
+        if (categoryNode.hasProperty(Category.PROPERTY_NAME_BODY)) {
+            entry.setBody(categoryNode.getProperty(Category.PROPERTY_NAME_BODY).getString());
+        }
+
+        if (categoryNode.hasProperty(Category.PROPERTY_NAME_IMAGE)) {
+            entry.setImageKey(categoryNode.getProperty(Category.PROPERTY_NAME_IMAGE).getString());
+        }
+
+        if (categoryNode.hasProperty(Category.PROPERTY_NAME_ICON)) {
+            entry.setIconKey(categoryNode.getProperty(Category.PROPERTY_NAME_ICON).getString());
+        }
+
+        return entry;
+    }
+
+    /**
+     * Copies a catalogue entry into a new {@link Tour}, resolving its categories from the same snapshot. The catalogue
+     * only keeps the detached entries, so callers are free to modify the tours they get.
+     */
+    private Tour getTour(TourEntry entry, TourCatalogue.Snapshot snapshot, MarshallingBatch batch) {
+        return toTour(entry,
+                getCategories(entry.getCategoryIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY), snapshot, batch),
+                getCategories(entry.getCategoryIdentifiers(Tour.PROPERTY_NAME_DESTINATION), snapshot, batch),
+                batch);
+    }
+
+    /**
+     * Copies a catalogue entry into a new {@link Category}, unless the batch already holds one.
+     */
+    private Category getCategory(CategoryEntry entry, MarshallingBatch batch) {
+        if (entry == null) {
+            return null;
+        }
+
+        final Category category = batch.categories.get(entry.getIdentifier());
+        return category != null ? category : toCategory(entry, batch);
+    }
+
+    private List<Category> getCategories(List<String> identifiers, TourCatalogue.Snapshot snapshot, MarshallingBatch batch) {
+        if (identifiers == null) {
+            return null;
+        }
+
+        final List<Category> categories = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            final Category category = getCategory(snapshot.getCategory(identifier), batch);
+            if (category != null) {
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+
+    private Tour toTour(TourEntry entry, List<Category> tourTypes, List<Category> destinations, MarshallingBatch batch) {
+        final Tour tour = new Tour();
+        metrics.marshalledTour();
+
+        tour.setIdentifier(entry.getIdentifier());
+        tour.setName(entry.getName());
+        tour.setDescription(entry.getDescription());
+
+        final String body = entry.getBody();
+        if (body != null) {
+            if (entry.hasLinks()) {
+                tour.setBody(getResolvedBody(entry));
+            } else {
+                tour.setBody(body);
+            }
+        }
+
+        tour.setAuthor(entry.getAuthor());
+        tour.setDuration(entry.getDuration());
+        tour.setLocation(entry.getLocation());
+
+        if (entry.getImageKey() != null) {
+            tour.setImage(getAsset(entry.getImageKey(), batch));
+        }
+
+        tour.setTourTypes(tourTypes);
+        tour.setDestinations(destinations);
+
+        tour.setLink(getTourLink(entry));
+
+        return tour;
+    }
+
+    /**
+     * Returns the body of the tour with its links resolved, from the {@link TourBodyCache} unless the tour or one of
+     * its link targets changed.
+     */
+    private String getResolvedBody(TourEntry entry) {
+        final Locale locale = getLocale();
+        String resolvedBody = tourBodyCache.get(entry.getIdentifier(), locale, entry.getLastModified());
+        metrics.cache("tourBodies").record(resolvedBody);
+
+        if (resolvedBody == null) {
+            try {
+                resolvedBody = LinkUtil.convertLinksFromUUIDPattern(entry.getBody(), linkTransformerManager.getBrowserLink(entry.getPath()));
+                tourBodyCache.put(entry.getIdentifier(), locale, entry.getLastModified(), entry.getBody(), resolvedBody);
+            } catch (LinkException e) {
+                log.warn("Failed to parse links with from {}", Tour.PROPERTY_NAME_BODY, e);
+            }
+        }
+
+        return resolvedBody;
+    }
+
+    private Category toCategory(CategoryEntry entry, MarshallingBatch batch) {
+        if (entry == null) {
+            return null;
+        }
+
+        final Category category = new Category(entry.getName(), entry.getIdentifier());
+        metrics.marshalledCategory();
+        category.setNodeName(entry.getNodeName());
+        category.setDescription(entry.getDescription());
+        category.setBody(entry.getBody());
+
+        if (entry.getImageKey() != null) {
+            category.setImage(getAsset(entry.getImageKey(), batch));
+        }
+
+        if (entry.getIconKey() != null) {
+            category.setIcon(getAsset(entry.getIconKey(), batch));
+        }
+
+        batch.categories.put(entry.getIdentifier(), category);
+        return category;
+    }
+
+    private Asset getAsset(String assetKey, MarshallingBatch batch) {
+        if (!batch.assets.containsKey(assetKey)) {
+            batch.assets.put(assetKey, imageFunctions.getAsset(assetKey));
+        }
+        return batch.assets.get(assetKey);
+    }
+
+    /**
+     * Categories and assets already resolved while marshalling a list of tours or categories.
+     */
+    private static final class MarshallingBatch {
+
+        private final Map<String, Category> categories = new HashMap<>();
+        private final Map<String, Asset> assets = new HashMap<>();
+    }
+
+    /**
+     * Reads catalogue entries the same way nodes are marshalled, in the locale of the snapshot rather than in the one of
+     * the current context.
+     */
+    private class CatalogueLoader implements TourCatalogue.Loader {
+
+        @Override
+        public TourEntry loadTour(Node tourNode, Locale locale) throws RepositoryException {
+            return readTourEntry(new LocalizedNodeWrapper(tourNode, Components.getComponent(I18nContentSupport.class), locale));
+        }
+
+        @Override
+        public CategoryEntry loadCategory(Node categoryNode, Locale locale) throws RepositoryException {
+            return readCategoryEntry(new LocalizedNodeWrapper(categoryNode, Components.getComponent(I18nContentSupport.class), locale));
+        }
+    }
+
+    /**
+     * Current tour and selector category of a request, which several models of a page ask for.
+     */
+    private static final class RequestCache {
+
+        private String tourName;
+        private Node tourNode;
+        private Tour tour;
+        private String categoryName;
+        private Category category;
+        private final Map<String, String> tourLinks = new HashMap<>();
+    }
+
 }
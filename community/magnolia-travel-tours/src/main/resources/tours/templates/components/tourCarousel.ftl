@@ -27,8 +27,11 @@
         [#if tour_index == 0 ]
             [#assign activeClass="active"]
         [/#if]
-        [#assign rendition = damfn.getRendition(tour.image, "1366")!]
-        <div class="item ${activeClass}"${backgroundImage(rendition)}>
+        [#assign renditionLink = ""]
+        [#if tour.image??]
+            [#assign renditionLink = imgfn.getRenditionLink(tour.image, "1366")]
+        [/#if]
+        <div class="item ${activeClass}"${backgroundImageLink(renditionLink)}>
             <div class="container">
                 <a class="carousel-link" href="${tour.link!}">
                     <div class="carousel-caption">
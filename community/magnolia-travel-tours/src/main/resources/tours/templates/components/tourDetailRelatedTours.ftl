@@ -1,14 +1,10 @@
 [#-------------- ASSIGNMENTS --------------]
 [#include "/tours/templates/macros/relatedTours.ftl"]
 
-[#assign relatedCategories = model.relatedCategoriesByParameter]
+[#-- One ranked row replaces a row of featured tours per category of the tour --]
+[#assign tours = model.getSimilarTours(6)]
 
 
 [#-------------- RENDERING --------------]
 <!-- Tour Detail - Related Tours -->
-[#list relatedCategories as category]
-
-    [#assign tours = model.getRelatedToursByCategory(category.identifier)]
-    [@relatedTours category.name tours /]
-
-[/#list]
+[@relatedTours "" tours i18n['tour.similar'] i18n['note.for.editors.similar'] /]
@@ -8,7 +8,12 @@
     [#assign category = model.getCategoryByUrl()!]
 [/#if]
 
-[#assign tours = model.getToursByCategory(category.identifier)]
+[#if def.pageSize > 0]
+    [#assign tourPage = model.getTourPage(category.identifier)]
+    [#assign tours = tourPage.tours]
+[#else]
+    [#assign tours = model.getToursByCategory(category.identifier)]
+[/#if]
 [#assign title = content.title!i18n.get('tour.all.tours', [category.name!""])!]
 
 [#-------------- RENDERING --------------]
@@ -23,6 +28,20 @@
         [/#list]
     </div>
 
+    [#if tourPage?? && tourPage.pageCount > 1]
+        <nav>
+            <ul class="pager">
+                [#if tourPage.hasPrevious()]
+                    <li class="previous"><a href="${model.getPageLink(tourPage.pageNumber - 1)}">${i18n['tour.previous']}</a></li>
+                [/#if]
+                <li>${i18n.get('tour.page', [tourPage.pageNumber, tourPage.pageCount])}</li>
+                [#if tourPage.hasNext()]
+                    <li class="next"><a href="${model.getPageLink(tourPage.pageNumber + 1)}">${i18n['tour.next']}</a></li>
+                [/#if]
+            </ul>
+        </nav>
+    [/#if]
+
     [@editorAlert i18n.get('note.for.editors.assign.category', [category.name!""]) /]
 </div>
 
@@ -21,3 +21,12 @@
         [#return "" /]
     [/#if]
 [/#function]
+
+[#-- Function that returns a style attribute with background-image and -size for given rendition link --]
+[#function backgroundImageLink renditionLink]
+    [#if renditionLink?has_content]
+        [#return ' style="background-image: url(${renditionLink}); background-size: cover; background-position:center;"' /]
+    [#else]
+        [#return "" /]
+    [/#if]
+[/#function]
@@ -1,5 +1,11 @@
-[#-- Displays a row of featured tours. --]
-[#macro relatedTours categoryName tours]
+[#-- Displays a row of featured tours, or of other tours if a heading and editor note are given. --]
+[#macro relatedTours categoryName tours heading="" editorNote=""]
+    [#local featured = !heading?has_content /]
+    [#if featured]
+        [#local heading = i18n.get('tour.featured', [categoryName]) /]
+        [#local editorNote = i18n.get('note.for.editors.featured', [categoryName!""]) /]
+    [/#if]
+    [#local fragment = featured?string("featuredCard", "similarCard") /]
 
     [#include "/travel-demo/templates/macros/imageResponsive.ftl"]
     [#include "/travel-demo/templates/macros/editorAlert.ftl" /]
@@ -9,21 +15,27 @@
     <div class="container after-category-header">
 
         [#-- get(key, args[]) requires the second parameter to be a sequence --]
-        <h2>${i18n.get('tour.featured', [categoryName])}</h2>
+        <h2>${heading}</h2>
         <div class="row featured-card-row">
             [#list tours as tour]
+                [#-- The card only depends on the tour, site and locale; it is rendered once and kept by tourfn --]
+                [#assign cardHtml = tourfn.getTourFragment(fragment, tour, content)!"" /]
+                [#if !cardHtml?has_content]
                 [#assign name = tour.name!tour.@name /]
                 [#assign description = tour.description!"" /]
                 [#assign tourLink = tour.link /]
                 [#assign imageHtml][@responsiveImageTravel tour.image "" "" "featured-image" "data-ratio='1.33'" true /][/#assign]
 
+                [#assign cardHtml]
                 <a class="featured-card-anchor" href="${tourLink!}">
                     <div class="col-md-4 featured-card card">
                         ${imageHtml}
                         <div class="featured-card-shader"></div>
+                        [#if featured]
                         <div class="featured-blaze"></div>
 
                         <div class="featured-blaze-text">${i18n['tour.featured.card']}</div>
+                        [/#if]
 
                         <h3>${name!}</h3>
                         <div class="category-icons">
@@ -44,10 +56,14 @@
                         </div>
                     </div>
                 </a>
+                [/#assign]
+                [#assign cardHtml = tourfn.putTourFragment(fragment, tour, content, cardHtml) /]
+                [/#if]
+                ${cardHtml}
             [/#list]
         </div>
 
-        [@editorAlert i18n.get('note.for.editors.featured', [categoryName!""]) /]
+        [@editorAlert editorNote /]
 
     </div>
 
@@ -2,8 +2,12 @@
 
     [#include "/travel-demo/templates/macros/imageResponsive.ftl"]
     [#include "/tours/templates/macros/tourTypeIcon.ftl" /]
-    [#assign imageHtml][@responsiveImageTravel tour.image "" "" "tour-card-image" "data-ratio='1.33'" true /][/#assign]
 
+    [#-- The card only depends on the tour, site and locale; it is rendered once and kept by tourfn --]
+    [#assign cardHtml = tourfn.getTourFragment("tourTeaser", tour, content)!"" /]
+    [#if !cardHtml?has_content]
+    [#assign imageHtml][@responsiveImageTravel tour.image "" "" "tour-card-image" "data-ratio='1.33'" true /][/#assign]
+    [#assign cardHtml]
     <!-- Tour Teaser -->
     <div class="col-md-6 tour-card card" >
         <div class="tour-card-background">
@@ -26,5 +30,9 @@
             </div>
         </a>
     </div>
+    [/#assign]
+    [#assign cardHtml = tourfn.putTourFragment("tourTeaser", tour, content, cardHtml) /]
+    [/#if]
+    ${cardHtml}
 
 [/#macro]
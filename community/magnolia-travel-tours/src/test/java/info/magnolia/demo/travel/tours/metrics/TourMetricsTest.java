@@ -0,0 +1,131 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.metrics;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TourMetrics}.
+ */
+public class TourMetricsTest {
+
+    @Test
+    public void timerRecordsLatencyHistogram() throws Exception {
+        // GIVEN
+        final Timer timer = new TourMetrics().timer("TourDetailModel.getTour");
+
+        // WHEN
+        for (int i = 0; i < 99; i++) {
+            timer.record(1000);
+        }
+        timer.record(1000000);
+
+        // THEN
+        assertThat(timer.getCount(), is(100L));
+        assertThat(timer.getP50Micros(), is(1L));
+        assertThat(timer.getP99Micros(), is(1L));
+        assertThat(timer.getMaxMicros(), is(1000L));
+    }
+
+    @Test
+    public void timingRecordsCallOnceClosed() throws Exception {
+        // GIVEN
+        final TourMetrics metrics = new TourMetrics();
+
+        // WHEN
+        try (Timer.Timing timing = metrics.time("TourDetailModel.getTour")) {
+            assertThat(metrics.timer("TourDetailModel.getTour").getCount(), is(0L));
+        }
+
+        // THEN
+        assertThat(metrics.timer("TourDetailModel.getTour").getCount(), is(1L));
+    }
+
+    @Test
+    public void timersAndCachesAreLookedUpByName() throws Exception {
+        // GIVEN
+        final TourMetrics metrics = new TourMetrics();
+
+        // WHEN
+        final Timer timer = metrics.timer("TourDetailModel.getTour");
+        final CacheStats cache = metrics.cache("slugIndex");
+
+        // THEN
+        assertThat(metrics.timer("TourDetailModel.getTour"), sameInstance(timer));
+        assertThat(metrics.cache("slugIndex"), sameInstance(cache));
+    }
+
+    @Test
+    public void cachesCountHitsAndMisses() throws Exception {
+        // GIVEN
+        final CacheStats cache = new TourMetrics().cache("requestTours");
+
+        // WHEN
+        cache.miss();
+        cache.hit();
+        cache.hit();
+        cache.record(null);
+
+        // THEN
+        assertThat(cache.getHits(), is(2L));
+        assertThat(cache.getMisses(), is(2L));
+        assertThat(cache.getHitRatio(), is(0.5d));
+    }
+
+    @Test
+    public void resetClearsAllMetrics() throws Exception {
+        // GIVEN
+        final TourMetrics metrics = new TourMetrics();
+        metrics.jcrQuery();
+        metrics.nodeLookups(3);
+        metrics.timer("TourDetailModel.getTour").record(1000);
+        metrics.cache("slugIndex").record(null);
+        metrics.cache("slugIndex").record("identifier");
+
+        // WHEN
+        final String snapshot = metrics.snapshot();
+        metrics.reset();
+
+        // THEN
+        assertThat(snapshot, containsString("jcrQueries=1, nodeLookups=3"));
+        assertThat(snapshot, containsString("slugIndex: hits=1, misses=1"));
+        assertThat(metrics.getJcrQueries(), is(0L));
+        assertThat(metrics.timer("TourDetailModel.getTour").getCount(), is(0L));
+        assertThat(metrics.cache("slugIndex").getHitRatio(), is(0d));
+    }
+
+}
@@ -38,6 +38,7 @@ import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.hamcrest.core.IsNot.not;
 import static org.mockito.Mockito.*;
 
+import info.magnolia.demo.travel.tours.metrics.TourMetrics;
 import info.magnolia.demo.travel.tours.model.definition.TourCategoryTemplateDefinition;
 import info.magnolia.demo.travel.tours.service.Tour;
 import info.magnolia.demo.travel.tours.service.TourServices;
@@ -66,6 +67,7 @@ public class RelatedToursModelTest extends MgnlTestCase {
     public void setUp() throws Exception {
         super.setUp();
         this.tourServices = mock(TourServices.class);
+        when(tourServices.getMetrics()).thenReturn(new TourMetrics());
         templateDefinition = mock(TourCategoryTemplateDefinition.class);
 
         this.model = new RelatedToursModel(mock(Node.class), templateDefinition, mock(RenderingModel.class), tourServices);
@@ -91,11 +93,10 @@ public class RelatedToursModelTest extends MgnlTestCase {
         when(tourServices.getTourNodeByParameter()).thenReturn(currentTourNode);
 
         List<Tour> tours = new ArrayList<Tour>() {{
-            add(0, currentTour);
-            add(1, someTour1);
+            add(0, someTour1);
             add(1, someTour2);
         }};
-        when(tourServices.getToursByCategory(categoryName, identifier, true)).thenReturn(tours);
+        when(tourServices.getFeaturedToursByCategory(categoryName, identifier, identifier)).thenReturn(tours);
 
         // WHEN
         List<Tour> relatedTours = model.getRelatedToursByCategory(identifier);
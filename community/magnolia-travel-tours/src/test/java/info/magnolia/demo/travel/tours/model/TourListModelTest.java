@@ -0,0 +1,108 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import info.magnolia.cms.core.AggregationState;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.tours.model.definition.TourCategoryTemplateDefinition;
+import info.magnolia.demo.travel.tours.service.TourServices;
+import info.magnolia.rendering.model.RenderingModel;
+import info.magnolia.test.mock.MockWebContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jcr.Node;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TourListModel}.
+ */
+public class TourListModelTest {
+
+    private MockWebContext context;
+    private TourListModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new MockWebContext();
+        final AggregationState aggregationState = new AggregationState();
+        aggregationState.setOriginalURI("/travel/tour-type~active~.html");
+        context.setAggregationState(aggregationState);
+        MgnlContext.setInstance(context);
+
+        model = new TourListModel(mock(Node.class), mock(TourCategoryTemplateDefinition.class), mock(RenderingModel.class), mock(TourServices.class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        MgnlContext.setInstance(null);
+    }
+
+    @Test
+    public void pageLinkKeepsSelectorsAndQueryParameters() throws Exception {
+        // GIVEN
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("sort", "name");
+        parameters.put(TourListModel.PAGE_QUERY_PARAMETER, "2");
+        parameters.put("q", "rock & roll");
+        context.setParameters(parameters);
+
+        // WHEN
+        final String link = model.getPageLink(3);
+
+        // THEN
+        assertThat(link, is("/travel/tour-type~active~.html?sort=name&q=rock+%26+roll&page=3"));
+    }
+
+    @Test
+    public void pageLinkWithoutQueryParameters() throws Exception {
+        // GIVEN
+        context.setParameters(new LinkedHashMap<String, String>());
+
+        // WHEN
+        final String link = model.getPageLink(1);
+
+        // THEN
+        assertThat(link, is("/travel/tour-type~active~.html?page=1"));
+    }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import info.magnolia.cms.i18n.DefaultI18nContentSupport;
+import info.magnolia.cms.i18n.LocaleDefinition;
+import info.magnolia.test.mock.jcr.MockNode;
+
+import java.util.Locale;
+
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LocalizedNodeWrapper}.
+ */
+public class LocalizedNodeWrapperTest {
+
+    private DefaultI18nContentSupport i18nContentSupport;
+    private MockNode node;
+
+    @Before
+    public void setUp() throws Exception {
+        i18nContentSupport = new DefaultI18nContentSupport();
+        i18nContentSupport.setEnabled(true);
+        i18nContentSupport.setDefaultLocale(Locale.ENGLISH);
+        i18nContentSupport.addLocale(LocaleDefinition.make("en", "", true));
+        i18nContentSupport.addLocale(LocaleDefinition.make("de", "", true));
+
+        node = new MockNode("tour");
+        node.setProperty(Tour.PROPERTY_NAME_DESCRIPTION, "description");
+        node.setProperty(Tour.PROPERTY_NAME_DESCRIPTION + "_de", "description_DE");
+    }
+
+    @Test
+    public void readsPropertiesInGivenLocale() throws Exception {
+        // WHEN
+        final Node localized = new LocalizedNodeWrapper(node, i18nContentSupport, Locale.GERMAN);
+
+        // THEN
+        assertThat(localized.getProperty(Tour.PROPERTY_NAME_DESCRIPTION).getString(), is("description_DE"));
+    }
+
+    @Test
+    public void fallsBackToPropertyWithoutLocale() throws Exception {
+        // WHEN
+        final Node localized = new LocalizedNodeWrapper(node, i18nContentSupport, Locale.FRENCH);
+
+        // THEN
+        assertThat(localized.hasProperty(Tour.PROPERTY_NAME_DESCRIPTION), is(true));
+        assertThat(localized.getProperty(Tour.PROPERTY_NAME_DESCRIPTION).getString(), is("description"));
+        assertThat(localized.hasProperty(Tour.PROPERTY_NAME_AUTHOR), is(false));
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void missingPropertiesAreNotFound() throws Exception {
+        // GIVEN
+        final Node localized = new LocalizedNodeWrapper(node, i18nContentSupport, Locale.GERMAN);
+
+        // WHEN
+        localized.getProperty(Tour.PROPERTY_NAME_AUTHOR);
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import info.magnolia.context.Context;
+import info.magnolia.context.MgnlContext;
+import info.magnolia.context.SystemContext;
+import info.magnolia.test.ComponentsTestUtil;
+import info.magnolia.test.mock.MockWebContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MarshallingExecutor}.
+ */
+public class MarshallingExecutorTest {
+
+    private MarshallingExecutor executor;
+    private Context context;
+    private SystemContext systemContext;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new MockWebContext();
+        MgnlContext.setInstance(context);
+        systemContext = mock(SystemContext.class);
+        ComponentsTestUtil.setInstance(SystemContext.class, systemContext);
+        executor = new MarshallingExecutor();
+        executor.start(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.stop();
+        ComponentsTestUtil.clear();
+        MgnlContext.setInstance(null);
+    }
+
+    @Test
+    public void keepsOrderAndSkipsFailedTasks() throws Exception {
+        // GIVEN
+        final List<Callable<String>> tasks = new ArrayList<>();
+        for (final String name : Arrays.asList("a", "b", null, "c")) {
+            tasks.add(new Callable<String>() {
+                @Override
+                public String call() {
+                    if (name == null) {
+                        throw new IllegalStateException("Cannot marshall");
+                    }
+                    return name;
+                }
+            });
+        }
+
+        // WHEN
+        final List<String> results = executor.invokeAll(tasks);
+
+        // THEN
+        assertThat(results, is(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void runsTasksInSystemContextAndReleasesTheirSessions() throws Exception {
+        // GIVEN
+        final Callable<Context> task = new Callable<Context>() {
+            @Override
+            public Context call() {
+                return MgnlContext.getInstance();
+            }
+        };
+
+        // WHEN
+        final List<Context> results = executor.invokeAll(Arrays.asList(task, task));
+
+        // THEN
+        assertThat(results, is(Arrays.<Context>asList(systemContext, systemContext)));
+        verify(systemContext, times(2)).release();
+        assertThat(MgnlContext.getInstance(), sameInstance(context));
+    }
+
+    @Test
+    public void runsOnCallingThreadWhenStoppedKeepingItsSessions() throws Exception {
+        // GIVEN
+        executor.stop();
+        final Thread caller = Thread.currentThread();
+        final Callable<Thread> task = new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        };
+
+        // WHEN
+        final List<Thread> results = executor.invokeAll(Arrays.asList(task));
+
+        // THEN
+        assertThat(executor.isEnabled(), is(false));
+        assertThat(results, is(Arrays.asList(caller)));
+        verify(systemContext, never()).release();
+        assertThat(MgnlContext.getInstance(), sameInstance(context));
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import info.magnolia.demo.travel.tours.service.TourCatalogue.CategoryEntry;
+import info.magnolia.demo.travel.tours.service.TourCatalogue.TourEntry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SearchIndex}.
+ */
+public class SearchIndexTest {
+
+    private Map<String, CategoryEntry> categories;
+
+    @Before
+    public void setUp() throws Exception {
+        categories = new HashMap<>();
+        final CategoryEntry beach = new CategoryEntry("beach", "beach");
+        beach.setName("Beach Holidays");
+        categories.put(beach.getIdentifier(), beach);
+    }
+
+    @Test
+    public void ranksMatchesByWeightedFields() throws Exception {
+        // GIVEN
+        final TourEntry inBody = tour("in-body", "Hike", null, "<p>A walk up to the <b>glacier</b>.</p>");
+        final TourEntry inName = tour("in-name", "Glacier Trek", null, null);
+        final TourEntry other = tour("other", "City Walk", "Old town", null);
+        final SearchIndex index = SearchIndex.build(Arrays.asList(inBody, inName, other), categories, Locale.ENGLISH);
+
+        // WHEN
+        final List<String> hits = index.search("Glacier");
+
+        // THEN
+        assertThat(hits, is(Arrays.asList("in-name", "in-body")));
+    }
+
+    @Test
+    public void matchesAllWordsOfQueryIgnoringCaseAndDiacritics() throws Exception {
+        // GIVEN
+        final TourEntry zurich = tour("zurich", "Z\u00fcrich by Night", null, null);
+        zurich.setLocation("Switzerland");
+        final TourEntry geneva = tour("geneva", "Geneva by Day", null, null);
+        geneva.setLocation("Switzerland");
+        final SearchIndex index = SearchIndex.build(Arrays.asList(zurich, geneva), categories, Locale.GERMAN);
+
+        // WHEN
+        final List<String> hits = index.search("ZURICH switzerland");
+
+        // THEN
+        assertThat(hits, is(Collections.singletonList("zurich")));
+    }
+
+    @Test
+    public void indexesCategoryNames() throws Exception {
+        // GIVEN
+        final TourEntry tour = tour("tour", "Sunny Days", null, null);
+        tour.setCategoryIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, Collections.singletonList("beach"));
+        final SearchIndex index = SearchIndex.build(Collections.singletonList(tour), categories, Locale.ENGLISH);
+
+        // WHEN
+        final List<String> hits = index.search("beach");
+
+        // THEN
+        assertThat(hits, is(Collections.singletonList("tour")));
+    }
+
+    @Test
+    public void builderReplacesTermsOfChangedToursWithoutModifyingIndex() throws Exception {
+        // GIVEN
+        final TourEntry before = tour("tour", "Glacier Trek", null, null);
+        final TourEntry after = tour("tour", "Desert Trek", null, null);
+        final SearchIndex index = SearchIndex.build(Collections.singletonList(before), categories, Locale.ENGLISH);
+
+        // WHEN
+        final SearchIndex.Builder builder = new SearchIndex.Builder(index, categories);
+        builder.update(before, after);
+        final SearchIndex patched = builder.build();
+
+        // THEN
+        assertThat(patched.search("glacier").isEmpty(), is(true));
+        assertThat(patched.search("desert"), is(Collections.singletonList("tour")));
+        assertThat(patched.size(), is(1));
+        assertThat(index.search("glacier"), is(Collections.singletonList("tour")));
+        assertThat(index.search("desert").isEmpty(), is(true));
+    }
+
+    @Test
+    public void builderSharesPostingsOfUnchangedTerms() throws Exception {
+        // GIVEN
+        final TourEntry glacier = tour("glacier", "Glacier Trek", null, null);
+        final TourEntry before = tour("desert", "Desert Trek", null, null);
+        final TourEntry after = tour("desert", "Desert Hike", null, null);
+        final SearchIndex index = SearchIndex.build(Arrays.asList(glacier, before), categories, Locale.ENGLISH);
+
+        // WHEN
+        final SearchIndex.Builder builder = new SearchIndex.Builder(index, categories);
+        builder.update(before, after);
+        final SearchIndex patched = builder.build();
+
+        // THEN
+        assertThat(patched.getPosting("glacier"), sameInstance(index.getPosting("glacier")));
+        assertThat(patched.getPosting("trek"), not(sameInstance(index.getPosting("trek"))));
+        assertThat(patched.search("trek"), is(Collections.singletonList("glacier")));
+        assertThat(index.search("trek"), hasSize(2));
+    }
+
+    @Test
+    public void blankQueryMatchesNothing() throws Exception {
+        // GIVEN
+        final SearchIndex index = SearchIndex.build(Collections.singletonList(tour("tour", "Glacier Trek", null, null)), categories, Locale.ENGLISH);
+
+        // WHEN
+        final List<String> hits = index.search(" ");
+
+        // THEN
+        assertThat(hits.isEmpty(), is(true));
+    }
+
+    private static TourEntry tour(String identifier, String name, String description, String body) {
+        final TourEntry tour = new TourEntry(identifier, identifier, "/" + identifier);
+        tour.setName(name);
+        tour.setDescription(description);
+        tour.setBody(body);
+        return tour;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import info.magnolia.demo.travel.tours.service.TourCatalogue.TourEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link SimilarityIndex}.
+ */
+public class SimilarityIndexTest {
+
+    private static final List<String> PROPERTIES = Arrays.asList(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, Tour.PROPERTY_NAME_DESTINATION);
+
+    @Test
+    public void ranksToursByWeightedSharedCategories() throws Exception {
+        // GIVEN
+        final List<TourEntry> tours = Arrays.asList(
+                tour("current", Arrays.asList("active", "family"), Collections.singletonList("europe")),
+                tour("destination-only", Collections.<String>emptyList(), Collections.singletonList("europe")),
+                tour("one-type", Collections.singletonList("active"), Collections.singletonList("asia")),
+                tour("unrelated", Collections.singletonList("beach"), Collections.singletonList("asia")),
+                tour("two-types", Arrays.asList("family", "active"), Collections.singletonList("asia")));
+        final SimilarityIndex index = SimilarityIndex.build(tours, PROPERTIES);
+
+        // WHEN
+        final List<String> similar = index.getMostSimilar("current", new int[]{2, 1}, 10);
+
+        // THEN
+        assertThat(similar, is(Arrays.asList("two-types", "one-type", "destination-only")));
+    }
+
+    @Test
+    public void keepsOnlyBestToursInCatalogueOrderOnTies() throws Exception {
+        // GIVEN
+        final List<TourEntry> tours = new ArrayList<>();
+        tours.add(tour("current", Collections.singletonList("active"), Collections.<String>emptyList()));
+        for (int i = 0; i < 100; i++) {
+            tours.add(tour("tour-" + i, Collections.singletonList("active"), Collections.<String>emptyList()));
+        }
+        final SimilarityIndex index = SimilarityIndex.build(tours, PROPERTIES);
+
+        // WHEN
+        final List<String> similar = index.getMostSimilar("current", new int[]{2, 1}, 3);
+
+        // THEN
+        assertThat(similar, is(Arrays.asList("tour-0", "tour-1", "tour-2")));
+    }
+
+    @Test
+    public void spansSeveralWordsPerTour() throws Exception {
+        // GIVEN
+        final List<String> manyTypes = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            manyTypes.add("type-" + i);
+        }
+        final List<TourEntry> tours = Arrays.asList(
+                tour("current", manyTypes, Collections.<String>emptyList()),
+                tour("first-type", Collections.singletonList("type-0"), Collections.<String>emptyList()),
+                tour("last-types", Arrays.asList("type-128", "type-129"), Collections.<String>emptyList()));
+        final SimilarityIndex index = SimilarityIndex.build(tours, PROPERTIES);
+
+        // WHEN
+        final List<String> similar = index.getMostSimilar("current", new int[]{1, 1}, 5);
+
+        // THEN
+        assertThat(similar, is(Arrays.asList("last-types", "first-type")));
+    }
+
+    @Test
+    public void boundsResultByCatalogueSize() throws Exception {
+        // GIVEN
+        final List<TourEntry> tours = Arrays.asList(
+                tour("current", Collections.singletonList("active"), Collections.<String>emptyList()),
+                tour("other", Collections.singletonList("active"), Collections.<String>emptyList()));
+        final SimilarityIndex index = SimilarityIndex.build(tours, PROPERTIES);
+
+        // WHEN
+        final List<String> similar = index.getMostSimilar("current", new int[]{2, 1}, Integer.MAX_VALUE);
+
+        // THEN
+        assertThat(similar, is(Collections.singletonList("other")));
+    }
+
+    @Test
+    public void unknownTourHasNoSimilarTours() throws Exception {
+        // GIVEN
+        final SimilarityIndex index = SimilarityIndex.build(Collections.singletonList(tour("tour", Collections.singletonList("active"), Collections.<String>emptyList())), PROPERTIES);
+
+        // WHEN
+        final List<String> similar = index.getMostSimilar("missing", new int[]{2, 1}, 5);
+
+        // THEN
+        assertThat(similar.isEmpty(), is(true));
+    }
+
+    private static TourEntry tour(String identifier, List<String> tourTypes, List<String> destinations) {
+        final TourEntry tour = new TourEntry(identifier, identifier, "/" + identifier);
+        tour.setCategoryIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, tourTypes);
+        tour.setCategoryIdentifiers(Tour.PROPERTY_NAME_DESTINATION, destinations);
+        return tour;
+    }
+
+}
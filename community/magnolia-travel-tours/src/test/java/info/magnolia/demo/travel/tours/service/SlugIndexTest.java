@@ -0,0 +1,131 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.jcr.util.NodeUtil;
+import info.magnolia.test.RepositoryTestCase;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SlugIndex}.
+ */
+public class SlugIndexTest extends RepositoryTestCase {
+
+    private final String repositoryConfigFileName = "info/magnolia/demo/travel/tours/service/test-tours-repositories.xml";
+
+    private Session tourSession;
+    private SlugIndex slugIndex;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        tourSession = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
+        slugIndex = new SlugIndex(ToursModule.TOURS_REPOSITORY_NAME);
+    }
+
+    @Override
+    public String getRepositoryConfigFileName() {
+        return this.repositoryConfigFileName;
+    }
+
+    @Test
+    public void findsContentNodesByName() throws Exception {
+        // GIVEN
+        final Node node = NodeUtil.createPath(tourSession.getRootNode(), "/test/foo/bar/quz", NodeTypes.Content.NAME, true);
+        NodeUtil.createPath(tourSession.getRootNode(), "/test/baz", NodeTypes.ContentNode.NAME, true);
+
+        // WHEN
+        final String identifier = slugIndex.getIdentifier("quz");
+
+        // THEN
+        assertThat(identifier, is(node.getIdentifier()));
+        assertThat(slugIndex.getIdentifier("baz"), nullValue());
+        assertThat(slugIndex.getIdentifier("unknown"), nullValue());
+    }
+
+    @Test
+    public void recordedChangesAreApplied() throws Exception {
+        // GIVEN
+        final Node removed = NodeUtil.createPath(tourSession.getRootNode(), "/test/removed", NodeTypes.Content.NAME, true);
+        final String removedIdentifier = removed.getIdentifier();
+        final Node renamed = NodeUtil.createPath(tourSession.getRootNode(), "/test/old-name", NodeTypes.Content.NAME, true);
+        slugIndex.getIdentifier("removed");
+
+        removed.remove();
+        NodeUtil.renameNode(renamed, "new-name");
+        final Node added = NodeUtil.createPath(tourSession.getRootNode(), "/test/added", NodeTypes.Content.NAME);
+        tourSession.save();
+
+        // WHEN
+        slugIndex.recordChange(removedIdentifier);
+        slugIndex.recordChange(renamed.getIdentifier());
+        slugIndex.recordChange(added.getIdentifier());
+
+        // THEN
+        assertThat(slugIndex.getIdentifier("removed"), nullValue());
+        assertThat(slugIndex.getIdentifier("old-name"), nullValue());
+        assertThat(slugIndex.getIdentifier("new-name"), is(renamed.getIdentifier()));
+        assertThat(slugIndex.getIdentifier("added"), is(added.getIdentifier()));
+    }
+
+    @Test
+    public void invalidatedIndexIsRebuilt() throws Exception {
+        // GIVEN
+        slugIndex.getIdentifier("added");
+        final Node added = NodeUtil.createPath(tourSession.getRootNode(), "/added", NodeTypes.Content.NAME, true);
+
+        // WHEN
+        final String before = slugIndex.getIdentifier("added");
+        slugIndex.invalidate();
+        final String after = slugIndex.getIdentifier("added");
+
+        // THEN
+        assertThat(before, nullValue());
+        assertThat(after, is(added.getIdentifier()));
+    }
+
+}
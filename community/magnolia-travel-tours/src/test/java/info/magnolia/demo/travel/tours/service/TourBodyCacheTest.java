@@ -0,0 +1,99 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TourBodyCache}.
+ */
+public class TourBodyCacheTest {
+
+    private static final String LINKED_IDENTIFIER = "cafebabe-cafe-babe-cafe-babecafebabe";
+    private static final String BODY = String.format("<a href=\"${link:{uuid:{%s},repository:{website},path:{/page}}}\">page</a>", LINKED_IDENTIFIER);
+
+    private TourBodyCache tourBodyCache;
+
+    @Before
+    public void setUp() {
+        tourBodyCache = new TourBodyCache();
+    }
+
+    @Test
+    public void resolvedBodyIsKeptPerVersionAndLocale() {
+        // GIVEN
+        tourBodyCache.put("tour", Locale.ENGLISH, 1L, BODY, "<a href=\"/page.html\">page</a>");
+
+        // WHEN
+        final String resolvedBody = tourBodyCache.get("tour", Locale.ENGLISH, 1L);
+
+        // THEN
+        assertThat(resolvedBody, is("<a href=\"/page.html\">page</a>"));
+        assertThat(tourBodyCache.get("tour", Locale.ENGLISH, 2L), nullValue());
+        assertThat(tourBodyCache.get("tour", Locale.GERMAN, 1L), nullValue());
+    }
+
+    @Test
+    public void changedLinkTargetDropsResolvedBody() {
+        // GIVEN
+        tourBodyCache.put("tour", Locale.ENGLISH, 1L, BODY, "<a href=\"/page.html\">page</a>");
+        tourBodyCache.put("other", Locale.ENGLISH, 1L, "no links", "no links");
+
+        // WHEN
+        tourBodyCache.invalidateTarget(LINKED_IDENTIFIER);
+
+        // THEN
+        assertThat(tourBodyCache.get("tour", Locale.ENGLISH, 1L), nullValue());
+        assertThat(tourBodyCache.get("other", Locale.ENGLISH, 1L), is("no links"));
+    }
+
+    @Test
+    public void changedTourDropsResolvedBody() {
+        // GIVEN
+        tourBodyCache.put("tour", Locale.ENGLISH, 1L, BODY, "<a href=\"/page.html\">page</a>");
+
+        // WHEN
+        tourBodyCache.invalidateTarget("tour");
+
+        // THEN
+        assertThat(tourBodyCache.get("tour", Locale.ENGLISH, 1L), nullValue());
+    }
+
+}
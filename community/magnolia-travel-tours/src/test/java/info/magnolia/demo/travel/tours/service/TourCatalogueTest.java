@@ -0,0 +1,299 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.Assert.assertThat;
+
+import info.magnolia.context.MgnlContext;
+import info.magnolia.demo.travel.tours.ToursModule;
+import info.magnolia.jcr.util.NodeTypes;
+import info.magnolia.jcr.util.NodeUtil;
+import info.magnolia.jcr.util.PropertyUtil;
+import info.magnolia.module.categorization.CategorizationModule;
+import info.magnolia.test.RepositoryTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TourCatalogue}.
+ */
+public class TourCatalogueTest extends RepositoryTestCase {
+
+    private final String repositoryConfigFileName = "info/magnolia/demo/travel/tours/service/test-tours-repositories.xml";
+
+    private Session tourSession;
+    private TourCatalogue catalogue;
+    private int loadedTours;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        tourSession = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
+
+        catalogue = new TourCatalogue(new TourCatalogue.Loader() {
+            @Override
+            public TourCatalogue.TourEntry loadTour(Node tourNode, Locale locale) throws RepositoryException {
+                loadedTours++;
+                final TourCatalogue.TourEntry entry = new TourCatalogue.TourEntry(tourNode.getIdentifier(), tourNode.getName(), tourNode.getPath());
+                entry.setName(PropertyUtil.getString(tourNode, Tour.PROPERTY_NAME_DISPLAY_NAME, tourNode.getName()));
+                entry.setFeatured(PropertyUtil.getBoolean(tourNode, "isFeatured", false));
+                if (tourNode.hasProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY)) {
+                    final List<String> tourTypes = new ArrayList<>();
+                    for (Value value : tourNode.getProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY).getValues()) {
+                        tourTypes.add(value.getString());
+                    }
+                    entry.setCategoryIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, tourTypes);
+                }
+                return entry;
+            }
+
+            @Override
+            public TourCatalogue.CategoryEntry loadCategory(Node categoryNode, Locale locale) throws RepositoryException {
+                return new TourCatalogue.CategoryEntry(categoryNode.getIdentifier(), categoryNode.getName());
+            }
+        });
+        catalogue.start();
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        catalogue.stop();
+        super.tearDown();
+    }
+
+    @Override
+    public String getRepositoryConfigFileName() {
+        return this.repositoryConfigFileName;
+    }
+
+    @Test
+    public void catalogueIsReadOnceAndServedFromMemory() throws Exception {
+        // GIVEN
+        final Node folder = NodeUtil.createPath(tourSession.getRootNode(), "/folder", NodeTypes.Folder.NAME);
+        final Node tour = folder.addNode("tour", NodeTypes.Content.NAME);
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "A tour");
+        tourSession.save();
+
+        // WHEN
+        catalogue.get(Locale.ENGLISH);
+        final TourCatalogue.Snapshot snapshot = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(loadedTours, is(1));
+        assertThat(snapshot.getTours(), hasSize(1));
+        assertThat(snapshot.getTour(tour.getIdentifier()).getName(), is("A tour"));
+        assertThat(snapshot.getTour(folder.getIdentifier()), nullValue());
+    }
+
+    @Test
+    public void catalogueIsReadOnEveryCallUnlessStarted() throws Exception {
+        // GIVEN
+        catalogue.stop();
+        final Node tour = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "A tour");
+        tourSession.save();
+        final TourCatalogue.Snapshot before = catalogue.get(Locale.ENGLISH);
+
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "Changed tour");
+        tourSession.save();
+
+        // WHEN
+        final TourCatalogue.Snapshot after = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(loadedTours, is(2));
+        assertThat(after, not(sameInstance(before)));
+        assertThat(after.getTour(tour.getIdentifier()).getName(), is("Changed tour"));
+    }
+
+    @Test
+    public void recordedChangesArePatchedIntoSnapshot() throws Exception {
+        // GIVEN
+        final Node tour = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "A tour");
+        NodeUtil.createPath(tourSession.getRootNode(), "/another-tour", NodeTypes.Content.NAME);
+        tourSession.save();
+        catalogue.get(Locale.ENGLISH);
+
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "Changed tour");
+        tourSession.save();
+
+        // WHEN
+        catalogue.recordChange(tour.getIdentifier());
+        final TourCatalogue.Snapshot snapshot = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(loadedTours, is(3));
+        assertThat(snapshot.getTours(), hasSize(2));
+        assertThat(snapshot.getTour(tour.getIdentifier()).getName(), is("Changed tour"));
+    }
+
+    @Test
+    public void removedToursAreDroppedOnNextAccess() throws Exception {
+        // GIVEN
+        final Node tour = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        final String identifier = tour.getIdentifier();
+        tourSession.save();
+        catalogue.get(Locale.ENGLISH);
+
+        tour.remove();
+        tourSession.save();
+
+        // WHEN
+        catalogue.recordChange(identifier);
+        final TourCatalogue.Snapshot snapshot = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(snapshot.getTour(identifier), nullValue());
+        assertThat(snapshot.getTours(), hasSize(0));
+    }
+
+    @Test
+    public void invalidatedCatalogueIsRebuilt() throws Exception {
+        // GIVEN
+        NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME, true);
+        final TourCatalogue.Snapshot before = catalogue.get(Locale.ENGLISH);
+
+        // WHEN
+        catalogue.invalidate();
+        final TourCatalogue.Snapshot after = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(loadedTours, is(2));
+        assertThat(after, not(sameInstance(before)));
+    }
+
+    @Test
+    public void categoriesAreLookedUpByNodeName() throws Exception {
+        // GIVEN
+        final Session categorySession = MgnlContext.getJCRSession(CategorizationModule.CATEGORIZATION_WORKSPACE);
+        final Node active = NodeUtil.createPath(categorySession.getRootNode(), "/tour-types/active", TourCatalogue.CATEGORY_NODE_TYPE);
+        NodeUtil.createPath(categorySession.getRootNode(), "/other/active", TourCatalogue.CATEGORY_NODE_TYPE);
+        categorySession.save();
+        final Node tour = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        tourSession.save();
+        catalogue.get(Locale.ENGLISH);
+
+        // WHEN
+        catalogue.recordChange(tour.getIdentifier());
+        final TourCatalogue.Snapshot snapshot = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(snapshot.getCategoryByNodeName("active").getIdentifier(), is(active.getIdentifier()));
+        assertThat(snapshot.getCategoryByNodeName("missing"), nullValue());
+    }
+
+    @Test
+    public void toursAreIndexedByCategory() throws Exception {
+        // GIVEN
+        final Node first = NodeUtil.createPath(tourSession.getRootNode(), "/first", NodeTypes.Content.NAME);
+        first.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{"active", "beach"});
+        final Node second = NodeUtil.createPath(tourSession.getRootNode(), "/second", NodeTypes.Content.NAME);
+        second.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{"active"});
+        second.setProperty("isFeatured", true);
+        tourSession.save();
+
+        // WHEN
+        final TourCatalogue.Snapshot snapshot = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(snapshot.getTourIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, "active", false), contains(first.getIdentifier(), second.getIdentifier()));
+        assertThat(snapshot.getTourIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, "active", true), contains(second.getIdentifier()));
+        assertThat(snapshot.getTourIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, "beach", false), contains(first.getIdentifier()));
+        assertThat(snapshot.getTourIdentifiers(Tour.PROPERTY_NAME_DESTINATION, "active", false), empty());
+    }
+
+    @Test
+    public void categoryIndexFollowsRecordedChanges() throws Exception {
+        // GIVEN
+        final Node tour = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        tour.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{"active"});
+        tourSession.save();
+        final TourCatalogue.Snapshot before = catalogue.get(Locale.ENGLISH);
+
+        tour.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{"beach"});
+        tour.setProperty("isFeatured", true);
+        tourSession.save();
+
+        // WHEN
+        catalogue.recordChange(tour.getIdentifier());
+        final TourCatalogue.Snapshot after = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(after.getTourIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, "active", false), empty());
+        assertThat(after.getTourIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, "beach", true), contains(tour.getIdentifier()));
+        assertThat(before.getTourIdentifiers(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, "active", false), contains(tour.getIdentifier()));
+    }
+
+    @Test
+    public void searchIndexFollowsRecordedChanges() throws Exception {
+        // GIVEN
+        final Node tour = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "Glacier Trek");
+        tourSession.save();
+        final TourCatalogue.Snapshot before = catalogue.get(Locale.ENGLISH);
+        assertThat(before.getSearchIndex().search("glacier"), contains(tour.getIdentifier()));
+
+        tour.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "Desert Trek");
+        tourSession.save();
+
+        // WHEN
+        catalogue.recordChange(tour.getIdentifier());
+        final TourCatalogue.Snapshot after = catalogue.get(Locale.ENGLISH);
+
+        // THEN
+        assertThat(after.getSearchIndex().search("glacier"), empty());
+        assertThat(after.getSearchIndex().search("desert"), contains(tour.getIdentifier()));
+        assertThat(loadedTours, is(2));
+    }
+
+}
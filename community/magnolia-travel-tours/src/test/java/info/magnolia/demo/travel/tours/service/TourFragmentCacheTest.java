@@ -0,0 +1,95 @@
+/**
+ * This file Copyright (c) 2015-2017 Magnolia International
+ * Ltd.  (http://www.magnolia-cms.com). All rights reserved.
+ *
+ *
+ * This file is dual-licensed under both the Magnolia
+ * Network Agreement and the GNU General Public License.
+ * You may elect to use one or the other of these licenses.
+ *
+ * This file is distributed in the hope that it will be
+ * useful, but AS-IS and WITHOUT ANY WARRANTY; without even the
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE, TITLE, or NONINFRINGEMENT.
+ * Redistribution, except as permitted by whichever of the GPL
+ * or MNA you select, is prohibited.
+ *
+ * 1. For the GPL license (GPL), you can redistribute and/or
+ * modify this file under the terms of the GNU General
+ * Public License, Version 3, as published by the Free Software
+ * Foundation.  You should have received a copy of the GNU
+ * General Public License, Version 3 along with this program;
+ * if not, write to the Free Software Foundation, Inc., 51
+ * Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * 2. For the Magnolia Network Agreement (MNA), this file
+ * and the accompanying materials are made available under the
+ * terms of the MNA which accompanies this distribution, and
+ * is available at http://www.magnolia-cms.com/mna.html
+ *
+ * Any modifications to this file must keep this entire header
+ * intact.
+ *
+ */
+package info.magnolia.demo.travel.tours.service;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TourFragmentCache}.
+ */
+public class TourFragmentCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedFragments() throws Exception {
+        // GIVEN
+        final TourFragmentCache cache = new TourFragmentCache(2);
+        cache.put("card", "tour-1", "site", Locale.ENGLISH, 1L, "<div>1</div>");
+        cache.put("card", "tour-2", "site", Locale.ENGLISH, 1L, "<div>2</div>");
+
+        // WHEN
+        cache.get("card", "tour-1", "site", Locale.ENGLISH, 1L);
+        cache.put("card", "tour-3", "site", Locale.ENGLISH, 1L, "<div>3</div>");
+
+        // THEN
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("card", "tour-1", "site", Locale.ENGLISH, 1L), is("<div>1</div>"));
+        assertThat(cache.get("card", "tour-2", "site", Locale.ENGLISH, 1L), nullValue());
+    }
+
+    @Test
+    public void keepsFragmentsPerVersionSiteAndLocale() throws Exception {
+        // GIVEN
+        final TourFragmentCache cache = new TourFragmentCache(10);
+
+        // WHEN
+        cache.put("card", "tour-1", "site", Locale.ENGLISH, 1L, "<div>1</div>");
+
+        // THEN
+        assertThat(cache.get("card", "tour-1", "site", Locale.ENGLISH, 2L), nullValue());
+        assertThat(cache.get("card", "tour-1", "other-site", Locale.ENGLISH, 1L), nullValue());
+        assertThat(cache.get("card", "tour-1", "site", Locale.GERMAN, 1L), nullValue());
+    }
+
+    @Test
+    public void invalidateTourDropsAllItsFragments() throws Exception {
+        // GIVEN
+        final TourFragmentCache cache = new TourFragmentCache(10);
+        cache.put("card", "tour-1", "site", Locale.ENGLISH, 1L, "<div>1</div>");
+        cache.put("teaser", "tour-1", "site", Locale.ENGLISH, 1L, "<div>1</div>");
+        cache.put("card", "tour-2", "site", Locale.ENGLISH, 1L, "<div>2</div>");
+
+        // WHEN
+        cache.invalidateTour("tour-1");
+
+        // THEN
+        assertThat(cache.size(), is(1));
+        assertThat(cache.get("card", "tour-2", "site", Locale.ENGLISH, 1L), is("<div>2</div>"));
+    }
+
+}
@@ -33,31 +33,38 @@
  */
 package info.magnolia.demo.travel.tours.service;
 
-import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
-import static org.junit.Assert.assertThat;
-import static org.mockito.Mockito.mock;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 import info.magnolia.cms.core.AggregationState;
 import info.magnolia.cms.i18n.DefaultI18nContentSupport;
 import info.magnolia.cms.i18n.I18nContentSupport;
 import info.magnolia.context.MgnlContext;
 import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+import info.magnolia.demo.travel.templating.ImageTemplatingFunctions;
 import info.magnolia.demo.travel.tours.ToursModule;
 import info.magnolia.jcr.util.NodeTypes;
 import info.magnolia.jcr.util.NodeUtil;
 import info.magnolia.link.LinkTransformerManager;
 import info.magnolia.module.categorization.functions.CategorizationTemplatingFunctions;
 import info.magnolia.rendering.template.registry.TemplateDefinitionRegistry;
+import info.magnolia.rendering.template.type.DefaultTemplateTypes;
 import info.magnolia.rendering.template.type.TemplateTypeHelper;
+import info.magnolia.repository.RepositoryConstants;
 import info.magnolia.templating.functions.TemplatingFunctions;
 import info.magnolia.test.ComponentsTestUtil;
 import info.magnolia.test.RepositoryTestCase;
 import info.magnolia.test.mock.MockWebContext;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Provider;
 import javax.jcr.Node;
@@ -65,6 +72,8 @@ import javax.jcr.Session;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 /**
  * Repository tests for {@link TourServices}.
@@ -73,6 +82,9 @@ public class TourServicesRepositoryTest extends RepositoryTestCase {
 
     private final String repositoryConfigFileName = "info/magnolia/demo/travel/tours/service/test-tours-repositories.xml";
 
+    private ToursModule toursModule;
+    private TemplatingFunctions templatingFunctions;
+    private CategorizationTemplatingFunctions categorizationTemplatingFunctions;
     private TourServices tourServices;
 
     private Session tourSession;
@@ -84,7 +96,7 @@ public class TourServicesRepositoryTest extends RepositoryTestCase {
 
         tourSession = MgnlContext.getJCRSession(ToursModule.TOURS_REPOSITORY_NAME);
 
-        final ToursModule toursModule = new ToursModule();
+        toursModule = new ToursModule();
         final TemplateDefinitionRegistry templateDefinitionRegistry = mock(TemplateDefinitionRegistry.class);
         final TemplateTypeHelper templateTypeHelper = new TemplateTypeHelper(templateDefinitionRegistry);
         final Provider<AggregationState> aggregationStateProvider = new Provider<AggregationState>() {
@@ -93,9 +105,10 @@ public class TourServicesRepositoryTest extends RepositoryTestCase {
                 return MgnlContext.getAggregationState();
             }
         };
-        final TemplatingFunctions templatingFunctions = new TemplatingFunctions(aggregationStateProvider, templateTypeHelper);
+        templatingFunctions = spy(new TemplatingFunctions(aggregationStateProvider, templateTypeHelper));
+        categorizationTemplatingFunctions = mock(CategorizationTemplatingFunctions.class);
 
-        tourServices = new TourServices(toursModule, templateTypeHelper, templatingFunctions, mock(CategorizationTemplatingFunctions.class), mock(DamTemplatingFunctions.class), new LinkTransformerManager());
+        tourServices = new TourServices(toursModule, templateTypeHelper, templatingFunctions, categorizationTemplatingFunctions, new ImageTemplatingFunctions(mock(DamTemplatingFunctions.class)), new LinkTransformerManager());
 
         ComponentsTestUtil.setImplementation(I18nContentSupport.class, DefaultI18nContentSupport.class);
     }
@@ -122,6 +135,28 @@ public class TourServicesRepositoryTest extends RepositoryTestCase {
         assertThat(tourNode.getIdentifier(), is(node.getIdentifier()));
     }
 
+    @Test
+    public void getTourNodeByParameterIsResolvedOncePerRequest() throws Exception {
+        // GIVEN
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(TourServices.TOUR_QUERY_PARAMETER, "quz");
+        ((MockWebContext) MgnlContext.getInstance()).setParameters(parameters);
+
+        NodeUtil.createPath(tourSession.getRootNode(), "/test/quz", NodeTypes.Content.NAME, true);
+        final Node other = NodeUtil.createPath(tourSession.getRootNode(), "/test/other", NodeTypes.Content.NAME, true);
+
+        // WHEN
+        final Node first = tourServices.getTourNodeByParameter();
+        final Node second = tourServices.getTourNodeByParameter();
+        parameters.put(TourServices.TOUR_QUERY_PARAMETER, "other");
+        ((MockWebContext) MgnlContext.getInstance()).setParameters(parameters);
+        final Node third = tourServices.getTourNodeByParameter();
+
+        // THEN
+        assertThat(second, sameInstance(first));
+        assertThat(third.getIdentifier(), is(other.getIdentifier()));
+    }
+
     @Test
     public void getRelatedToursByCategory() throws Exception {
         // GIVEN
@@ -140,4 +175,209 @@ public class TourServicesRepositoryTest extends RepositoryTestCase {
         assertThat(tours.get(0).getIdentifier(), is(node.getIdentifier()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getFeaturedToursByCategoryExcludesTourAndLimitsCount() throws Exception {
+        // GIVEN
+        toursModule.setMaxFeaturedTours(2);
+        final Node referenceNode = NodeUtil.createPath(tourSession.getRootNode(), "/reference", NodeTypes.Content.NAME);
+        final List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Node node = NodeUtil.createPath(tourSession.getRootNode(), "/tour" + i, NodeTypes.Content.NAME);
+            node.setProperty("isFeatured", i != 2);
+            node.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{referenceNode.getIdentifier()});
+            nodes.add(node);
+        }
+        tourSession.save();
+
+        // WHEN
+        final List<Tour> tours = tourServices.getFeaturedToursByCategory(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, referenceNode.getIdentifier(), nodes.get(0).getIdentifier());
+
+        // THEN
+        assertThat(tours, hasSize(2));
+        assertThat(tours.get(0).getIdentifier(), is(nodes.get(1).getIdentifier()));
+        assertThat(tours.get(1).getIdentifier(), is(nodes.get(3).getIdentifier()));
+    }
+
+    @Test
+    public void getTourPageOnlyReturnsRequestedPage() throws Exception {
+        // GIVEN
+        final Node referenceNode = NodeUtil.createPath(tourSession.getRootNode(), "/reference", NodeTypes.Content.NAME);
+        for (int i = 0; i < 5; i++) {
+            final Node node = NodeUtil.createPath(tourSession.getRootNode(), "/tour" + i, NodeTypes.Content.NAME);
+            node.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{referenceNode.getIdentifier()});
+        }
+        tourSession.save();
+
+        // WHEN
+        final TourPage page = tourServices.getTourPage(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, referenceNode.getIdentifier(), false, 2, 2);
+
+        // THEN
+        assertThat(page.getTours(), hasSize(2));
+        assertThat(page.getTours().get(0).getIdentifier(), is(tourSession.getNode("/tour2").getIdentifier()));
+        assertThat(page.getTotal(), is(5));
+        assertThat(page.getPageNumber(), is(2));
+        assertThat(page.getPageCount(), is(3));
+        assertThat(page.hasPrevious(), is(true));
+        assertThat(page.hasNext(), is(true));
+    }
+
+    @Test
+    public void getTourPageBeyondLastPageIsEmptyLastPage() throws Exception {
+        // GIVEN
+        final Node referenceNode = NodeUtil.createPath(tourSession.getRootNode(), "/reference", NodeTypes.Content.NAME);
+        for (int i = 0; i < 5; i++) {
+            final Node node = NodeUtil.createPath(tourSession.getRootNode(), "/tour" + i, NodeTypes.Content.NAME);
+            node.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{referenceNode.getIdentifier()});
+        }
+        tourSession.save();
+
+        // WHEN
+        final TourPage page = tourServices.getTourPage(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, referenceNode.getIdentifier(), false, 10, 2);
+
+        // THEN
+        assertThat(page.getTours(), hasSize(0));
+        assertThat(page.getOffset(), is(5));
+        assertThat(page.getPageNumber(), is(3));
+        assertThat(page.getPageCount(), is(3));
+        assertThat(page.hasNext(), is(false));
+    }
+
+    @Test
+    public void getTourPageFollowsCursor() throws Exception {
+        // GIVEN
+        final Node referenceNode = NodeUtil.createPath(tourSession.getRootNode(), "/reference", NodeTypes.Content.NAME);
+        for (int i = 0; i < 3; i++) {
+            final Node node = NodeUtil.createPath(tourSession.getRootNode(), "/tour" + i, NodeTypes.Content.NAME);
+            node.setProperty(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, new String[]{referenceNode.getIdentifier()});
+        }
+        tourSession.save();
+        final TourPage first = tourServices.getTourPage(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, referenceNode.getIdentifier(), false, null, 2);
+
+        // WHEN
+        final TourPage second = tourServices.getTourPage(Tour.PROPERTY_NAME_TOUR_TYPES_CATEGORY, referenceNode.getIdentifier(), false, first.getNextCursor(), 2);
+
+        // THEN
+        assertThat(first.getTours(), hasSize(2));
+        assertThat(second.getTours(), hasSize(1));
+        assertThat(second.getTours().get(0).getIdentifier(), is(tourSession.getNode("/tour2").getIdentifier()));
+        assertThat(second.hasNext(), is(false));
+        assertThat(second.getNextCursor(), nullValue());
+    }
+
+    @Test
+    public void catalogueToursAreCopiedForEachCaller() throws Exception {
+        // GIVEN
+        final Node node = NodeUtil.createPath(tourSession.getRootNode(), "/tour", NodeTypes.Content.NAME);
+        node.setProperty(Tour.PROPERTY_NAME_DISPLAY_NAME, "A tour");
+        tourSession.save();
+        final Tour tour = tourServices.getTourByIdentifier(node.getIdentifier());
+
+        // WHEN
+        tour.setName("Another tour");
+
+        // THEN
+        assertThat(tour.getName(), is("Another tour"));
+        assertThat(tourServices.getTourByIdentifier(node.getIdentifier()), not(sameInstance(tour)));
+        assertThat(tourServices.getTourByIdentifier(node.getIdentifier()).getName(), is("A tour"));
+    }
+
+    @Test
+    public void getToursByIdentifiersKeepsOrderAndSkipsMissing() throws Exception {
+        // GIVEN
+        final Node first = NodeUtil.createPath(tourSession.getRootNode(), "/first", NodeTypes.Content.NAME);
+        final Node second = NodeUtil.createPath(tourSession.getRootNode(), "/second", NodeTypes.Content.NAME);
+        tourSession.save();
+
+        // WHEN
+        final List<Tour> tours = tourServices.getToursByIdentifiers(Arrays.asList(second.getIdentifier(), "missing", first.getIdentifier()));
+
+        // THEN
+        assertThat(tours, hasSize(2));
+        assertThat(tours.get(0).getIdentifier(), is(second.getIdentifier()));
+        assertThat(tours.get(1).getIdentifier(), is(first.getIdentifier()));
+    }
+
+    @Test
+    public void categoryOverviewPageIsSearchedOncePerSiteRootSubTypeAndLocale() throws Exception {
+        // GIVEN
+        final Session websiteSession = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE);
+        final Node site = NodeUtil.createPath(websiteSession.getRootNode(), "/site", NodeTypes.Content.NAME);
+        final Node otherSite = NodeUtil.createPath(websiteSession.getRootNode(), "/other-site", NodeTypes.Content.NAME);
+        final Node overview = NodeUtil.createPath(site, "overview", NodeTypes.Content.NAME);
+        websiteSession.save();
+        final AtomicInteger searches = stubCategoryOverviewPage(overview);
+        doReturn(site).when(templatingFunctions).siteRoot(site);
+        doReturn(otherSite).when(templatingFunctions).siteRoot(otherSite);
+        doReturn("/site/overview.html").when(templatingFunctions).link(RepositoryConstants.WEBSITE, overview.getIdentifier());
+        final I18nContentSupport i18nContentSupport = mock(I18nContentSupport.class);
+        when(i18nContentSupport.getLocale()).thenReturn(Locale.ENGLISH);
+        ComponentsTestUtil.setInstance(I18nContentSupport.class, i18nContentSupport);
+        tourServices.start();
+
+        try {
+            // WHEN
+            final String link = tourServices.getCategoryLink(site, "active", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+            tourServices.getCategoryLink(site, "beach", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+            final int searchesPerSubType = searches.get();
+            tourServices.getCategoryLink(site, "europe", ToursModule.TEMPLATE_SUB_TYPE_DESTINATION_OVERVIEW);
+            tourServices.getCategoryLink(otherSite, "active", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+            when(i18nContentSupport.getLocale()).thenReturn(Locale.GERMAN);
+            tourServices.getCategoryLink(site, "active", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+            tourServices.getCategoryLink(site, "active", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+
+            // THEN
+            assertThat(link, is("/site/overview~active~.html"));
+            assertThat(searchesPerSubType, is(1));
+            assertThat(searches.get(), is(4));
+        } finally {
+            tourServices.stop();
+        }
+    }
+
+    @Test
+    public void categoryOverviewLinksAreDroppedOnPageChanges() throws Exception {
+        // GIVEN
+        final Session websiteSession = MgnlContext.getJCRSession(RepositoryConstants.WEBSITE);
+        final Node site = NodeUtil.createPath(websiteSession.getRootNode(), "/site", NodeTypes.Content.NAME);
+        final Node overview = NodeUtil.createPath(site, "overview", NodeTypes.Content.NAME);
+        websiteSession.save();
+        final AtomicInteger searches = stubCategoryOverviewPage(overview);
+        doReturn(site).when(templatingFunctions).siteRoot(site);
+        doReturn("/site/overview.html").when(templatingFunctions).link(RepositoryConstants.WEBSITE, overview.getIdentifier());
+        tourServices.start();
+
+        try {
+            tourServices.getCategoryLink(site, "active", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+
+            // WHEN
+            overview.setProperty("title", "Changed");
+            websiteSession.save();
+
+            // THEN
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (searches.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                tourServices.getCategoryLink(site, "active", ToursModule.TEMPLATE_SUB_TYPE_TOUR_OVERVIEW);
+            }
+            assertThat(searches.get(), is(2));
+        } finally {
+            tourServices.stop();
+        }
+    }
+
+    /**
+     * Makes the category overview page search return <code>overview</code> and counts the searches.
+     */
+    private AtomicInteger stubCategoryOverviewPage(final Node overview) throws Exception {
+        final AtomicInteger searches = new AtomicInteger();
+        when(categorizationTemplatingFunctions.getContentByTemplateCategorySubCategory(any(Node.class), eq(DefaultTemplateTypes.FEATURE), any(String.class))).thenAnswer(new Answer<Node>() {
+            @Override
+            public Node answer(InvocationOnMock invocation) throws Throwable {
+                searches.incrementAndGet();
+                return overview;
+            }
+        });
+        return searches;
+    }
+
+}
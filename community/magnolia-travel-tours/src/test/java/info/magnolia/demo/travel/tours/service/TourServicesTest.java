@@ -47,6 +47,7 @@ import info.magnolia.cms.i18n.LocaleDefinition;
 import info.magnolia.context.MgnlContext;
 import info.magnolia.dam.api.Asset;
 import info.magnolia.dam.templating.functions.DamTemplatingFunctions;
+import info.magnolia.demo.travel.templating.ImageTemplatingFunctions;
 import info.magnolia.demo.travel.tours.ToursModule;
 import info.magnolia.jcr.util.NodeTypes;
 import info.magnolia.jcr.util.NodeUtil;
@@ -59,6 +60,8 @@ import info.magnolia.test.ComponentsTestUtil;
 import info.magnolia.test.mock.MockWebContext;
 import info.magnolia.test.mock.jcr.MockSession;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Provider;
@@ -130,7 +133,7 @@ public class TourServicesTest {
 
         damTemplatingFunctions = mock(DamTemplatingFunctions.class);
 
-        tourServices = new TourServices(toursModule, templateTypeHelper, templatingFunctions, categorizationTemplatingFunctions, damTemplatingFunctions, linkTransformerManager);
+        tourServices = new TourServices(toursModule, templateTypeHelper, templatingFunctions, categorizationTemplatingFunctions, new ImageTemplatingFunctions(damTemplatingFunctions), linkTransformerManager);
     }
 
     @After
@@ -202,6 +205,27 @@ public class TourServicesTest {
         assertThat(tour.getIdentifier(), is(node.getIdentifier()));
     }
 
+    @Test
+    public void marshallTourNodesResolvesSharedAssetsOnce() throws Exception {
+        // GIVEN
+        final Node first = NodeUtil.createPath(session.getRootNode(), "first", NodeTypes.ContentNode.NAME);
+        first.setProperty(Tour.PROPERTY_NAME_IMAGE, "jcr:cafebabe-cafe-babe-cafe-babecafebabe");
+        final Node second = NodeUtil.createPath(session.getRootNode(), "second", NodeTypes.ContentNode.NAME);
+        second.setProperty(Tour.PROPERTY_NAME_IMAGE, "jcr:cafebabe-cafe-babe-cafe-babecafebabe");
+        final Asset asset = mock(Asset.class);
+
+        when(damTemplatingFunctions.getAsset(anyString())).thenReturn(asset);
+
+        // WHEN
+        final List<Tour> tours = tourServices.marshallTourNodes(Arrays.asList(first, second));
+
+        // THEN
+        assertThat(tours.size(), is(2));
+        assertThat(tours.get(0).getImage(), is(asset));
+        assertThat(tours.get(1).getImage(), is(asset));
+        verify(damTemplatingFunctions, times(1)).getAsset("jcr:cafebabe-cafe-babe-cafe-babecafebabe");
+    }
+
     @Test
     public void marshallTourNodeI18nized() throws Exception {
         // GIVEN